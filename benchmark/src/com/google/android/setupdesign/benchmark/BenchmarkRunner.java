@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.benchmark;
+
+import static org.junit.Assert.assertTrue;
+
+import android.util.Log;
+import java.util.Arrays;
+
+/**
+ * Minimal timing loop for the benchmarks of this module. Runs the operation for a few warmup
+ * rounds, then measures several rounds and takes the median time per operation, which is less
+ * sensitive to garbage collection and JIT pauses than the mean.
+ *
+ * <p>The benchmarks run on the JVM under Robolectric, so the absolute numbers are not those of a
+ * device. Each benchmark therefore fails only when its median exceeds a budget, a ceiling set
+ * several times above the typical host timing so that it catches algorithmic regressions (an
+ * operation turning linear, a cache no longer being hit) rather than noise. Slow hosts can raise
+ * every budget with the {@code setupdesign.benchmark.budgetScale} system property. Where two code
+ * paths are measured against each other, benchmarks also assert on their ratio, which does not
+ * depend on the host.
+ */
+final class BenchmarkRunner {
+
+  private static final String TAG = "SetupDesignBenchmark";
+
+  private static final String BUDGET_SCALE_PROPERTY = "setupdesign.benchmark.budgetScale";
+
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int ROUNDS = 10;
+
+  private BenchmarkRunner() {}
+
+  /**
+   * Measures {@code operation} and returns the median time per call in nanoseconds, failing if it
+   * exceeds {@code budgetNanos}.
+   */
+  static long measure(String name, long budgetNanos, int iterationsPerRound, Runnable operation) {
+    for (int i = 0; i < WARMUP_ROUNDS * iterationsPerRound; i++) {
+      operation.run();
+    }
+    final long[] nanosPerOp = new long[ROUNDS];
+    for (int round = 0; round < ROUNDS; round++) {
+      final long start = System.nanoTime();
+      for (int i = 0; i < iterationsPerRound; i++) {
+        operation.run();
+      }
+      nanosPerOp[round] = (System.nanoTime() - start) / iterationsPerRound;
+    }
+    Arrays.sort(nanosPerOp);
+    final long median = nanosPerOp[ROUNDS / 2];
+    final long scaledBudget = (long) (budgetNanos * getBudgetScale());
+    Log.i(TAG, name + ": " + median + " ns/op (budget " + scaledBudget + " ns/op)");
+    assertTrue(
+        name + " took " + median + " ns/op, over its budget of " + scaledBudget + " ns/op",
+        median <= scaledBudget);
+    return median;
+  }
+
+  /**
+   * Fails unless {@code fasterNanos}, the time of an optimized code path, is at most {@code
+   * maxRatio} times {@code slowerNanos}, the time of the code path it avoids.
+   */
+  static void assertFasterThan(String name, long fasterNanos, long slowerNanos, double maxRatio) {
+    assertTrue(
+        String.format(
+            "%s took %d ns/op, expected at most %s times %d ns/op",
+            name, fasterNanos, maxRatio, slowerNanos),
+        fasterNanos <= slowerNanos * maxRatio);
+  }
+
+  private static double getBudgetScale() {
+    final String scale = System.getProperty(BUDGET_SCALE_PROPERTY);
+    return scale != null ? Double.parseDouble(scale) : 1;
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.benchmark;
+
+import static org.junit.Assert.assertNotNull;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+import com.google.android.setupdesign.GlifLayout;
+import com.google.android.setupdesign.GlifListLayout;
+import com.google.android.setupdesign.GlifRecyclerLayout;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Benchmarks of creating GLIF layouts from scratch, which inflates their template and creates the
+ * mixins used by every screen. Each operation creates a new layout, as an activity does in {@code
+ * onCreate}; only the first creation in the process also loads the classes and resources.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class GlifLayoutInflationBenchmark {
+
+  private Context context;
+
+  @Before
+  public void setUp() {
+    final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+    context = new ContextThemeWrapper(activity, R.style.SudThemeGlif_Light);
+  }
+
+  @Test
+  public void glifLayout() {
+    assertNotNull(new GlifLayout(context).getHeaderTextView());
+
+    BenchmarkRunner.measure(
+        "GlifLayout creation", /* budgetNanos= */ 20_000_000, 50, () -> new GlifLayout(context));
+  }
+
+  @Test
+  public void glifListLayout() {
+    assertNotNull(new GlifListLayout(context).getListView());
+
+    BenchmarkRunner.measure(
+        "GlifListLayout creation",
+        /* budgetNanos= */ 20_000_000,
+        50,
+        () -> new GlifListLayout(context));
+  }
+
+  @Test
+  public void glifRecyclerLayout() {
+    assertNotNull(new GlifRecyclerLayout(context).getRecyclerView());
+
+    BenchmarkRunner.measure(
+        "GlifRecyclerLayout creation",
+        /* budgetNanos= */ 20_000_000,
+        50,
+        () -> new GlifRecyclerLayout(context));
+  }
+}
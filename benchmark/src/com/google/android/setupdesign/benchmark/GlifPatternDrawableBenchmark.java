@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.benchmark;
+
+import static org.junit.Assert.assertNotNull;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import com.google.android.setupdesign.GlifPatternDrawable;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Benchmarks of rendering the GLIF background pattern into its bitmap cache. */
+@RunWith(RobolectricTestRunner.class)
+public class GlifPatternDrawableBenchmark {
+
+  private static final int WIDTH = 1080;
+  private static final int HEIGHT = 1920;
+
+  @Test
+  public void createBitmapCache() {
+    final GlifPatternDrawable drawable = new GlifPatternDrawable(Color.RED);
+    final Bitmap bitmap = drawable.createBitmapCache(WIDTH, HEIGHT);
+    assertNotNull(bitmap);
+    bitmap.recycle();
+
+    BenchmarkRunner.measure(
+        "GlifPatternDrawable.createBitmapCache (" + WIDTH + "x" + HEIGHT + ")",
+        /* budgetNanos= */ 100_000_000,
+        20,
+        () -> drawable.createBitmapCache(WIDTH, HEIGHT).recycle());
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.content.Context;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+import android.view.View.MeasureSpec;
+import android.view.ViewGroup;
+import com.google.android.setupdesign.GlifLayout;
+import com.google.android.setupdesign.GlifListLayout;
+import com.google.android.setupdesign.GlifRecyclerLayout;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Benchmarks of the GLIF card templates used on large screens against their flattened variants
+ * selected by {@code sudUseFlattenedTemplate}. Compares the number of views and the depth of the
+ * view tree, and the time of a full measure and layout pass of the template.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(qualifiers = "sw600dp-w800dp-h1280dp")
+public class GlifTemplateBenchmark {
+
+  private static final String TAG = "SetupDesignBenchmark";
+
+  private static final int WIDTH = 800;
+  private static final int HEIGHT = 1280;
+
+  /** The spacer views that center the card in the templates which are not flattened. */
+  private static final int SPACER_COUNT = 2;
+
+  private Context context;
+  private Context flattenedContext;
+
+  @Before
+  public void setUp() {
+    final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+    context = new ContextThemeWrapper(activity, R.style.SudThemeGlif_Light);
+    flattenedContext = new ContextThemeWrapper(activity, R.style.Theme_SudBenchmark_Flattened);
+  }
+
+  @Test
+  public void glifLayout() {
+    compareTemplates("GlifLayout", GlifLayout::new);
+  }
+
+  @Test
+  public void glifListLayout() {
+    compareTemplates("GlifListLayout", GlifListLayout::new);
+  }
+
+  @Test
+  public void glifRecyclerLayout() {
+    compareTemplates("GlifRecyclerLayout", GlifRecyclerLayout::new);
+  }
+
+  private void compareTemplates(String name, LayoutFactory layoutFactory) {
+    final View layout = layoutFactory.create(context);
+    final View flattenedLayout = layoutFactory.create(flattenedContext);
+
+    final int viewCount = countViews(layout);
+    final int flattenedViewCount = countViews(flattenedLayout);
+    final int depth = getDepth(layout);
+    final int flattenedDepth = getDepth(flattenedLayout);
+    Log.i(TAG, name + ": " + viewCount + " views, depth " + depth);
+    Log.i(TAG, name + " (flattened): " + flattenedViewCount + " views, depth " + flattenedDepth);
+    assertEquals(viewCount - SPACER_COUNT, flattenedViewCount);
+    assertTrue(flattenedDepth <= depth);
+
+    final long nanos =
+        BenchmarkRunner.measure(
+            name + " measure and layout",
+            /* budgetNanos= */ 5_000_000,
+            200,
+            () -> measureAndLayout(layout));
+    final long flattenedNanos =
+        BenchmarkRunner.measure(
+            name + " measure and layout (flattened)",
+            /* budgetNanos= */ 5_000_000,
+            200,
+            () -> measureAndLayout(flattenedLayout));
+    // The flattened template avoids the weighted measure pass of the spacers.
+    BenchmarkRunner.assertFasterThan(
+        name + " measure and layout (flattened)", flattenedNanos, nanos, 1.25);
+  }
+
+  /** Measures and lays out every view of the tree again, as after a configuration change. */
+  private static void measureAndLayout(View layout) {
+    forceLayout(layout);
+    layout.measure(
+        MeasureSpec.makeMeasureSpec(WIDTH, MeasureSpec.EXACTLY),
+        MeasureSpec.makeMeasureSpec(HEIGHT, MeasureSpec.EXACTLY));
+    layout.layout(0, 0, WIDTH, HEIGHT);
+  }
+
+  private static void forceLayout(View view) {
+    view.forceLayout();
+    if (view instanceof ViewGroup) {
+      final ViewGroup group = (ViewGroup) view;
+      for (int i = 0; i < group.getChildCount(); i++) {
+        forceLayout(group.getChildAt(i));
+      }
+    }
+  }
+
+  private static int countViews(View view) {
+    int count = 1;
+    if (view instanceof ViewGroup) {
+      final ViewGroup group = (ViewGroup) view;
+      for (int i = 0; i < group.getChildCount(); i++) {
+        count += countViews(group.getChildAt(i));
+      }
+    }
+    return count;
+  }
+
+  private static int getDepth(View view) {
+    int childDepth = 0;
+    if (view instanceof ViewGroup) {
+      final ViewGroup group = (ViewGroup) view;
+      for (int i = 0; i < group.getChildCount(); i++) {
+        childDepth = Math.max(childDepth, getDepth(group.getChildAt(i)));
+      }
+    }
+    return childDepth + 1;
+  }
+
+  private interface LayoutFactory {
+    View create(Context context);
+  }
+}
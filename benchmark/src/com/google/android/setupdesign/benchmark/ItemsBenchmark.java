@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import androidx.test.core.app.ApplicationProvider;
+import com.google.android.setupdesign.items.Item;
+import com.google.android.setupdesign.items.ItemGroup;
+import com.google.android.setupdesign.items.ItemHierarchy;
+import com.google.android.setupdesign.items.ItemInflater;
+import com.google.android.setupdesign.items.ItemInflater.ItemParent;
+import com.google.android.setupdesign.items.SimpleInflater;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Benchmarks of item lookup and inflation, as done when binding and creating item lists. */
+@RunWith(RobolectricTestRunner.class)
+public class ItemsBenchmark {
+
+  private static final int GROUP_COUNT = 10;
+  private static final int ITEMS_PER_GROUP = 10;
+
+  @Test
+  public void itemGroup_getItemAt() {
+    final ItemGroup root = createItemGroup();
+    final int count = root.getCount();
+    assertEquals(GROUP_COUNT * ITEMS_PER_GROUP, count);
+
+    BenchmarkRunner.measure(
+        "ItemGroup.getItemAt (all " + count + " positions)",
+        /* budgetNanos= */ 200_000,
+        1_000,
+        () -> {
+          for (int position = 0; position < count; position++) {
+            root.getItemAt(position);
+          }
+        });
+  }
+
+  @Test
+  public void itemGroup_getCount_afterMutation() {
+    final ItemGroup root = createItemGroup();
+    final ItemGroup nestedGroup = new ItemGroup();
+    final ItemGroup group = new ItemGroup();
+    group.addChild(nestedGroup);
+    root.addChild(group);
+    final Item item = new Item();
+    final int count = root.getCount();
+
+    // Each mutation of a nested group invalidates the positions cached by the root.
+    BenchmarkRunner.measure(
+        "ItemGroup.getCount (after adding and removing a nested item)",
+        /* budgetNanos= */ 100_000,
+        1_000,
+        () -> {
+          nestedGroup.addChild(item);
+          assertEquals(count + 1, root.getCount());
+          nestedGroup.removeChild(item);
+          assertEquals(count, root.getCount());
+        });
+  }
+
+  @Test
+  public void itemInflater_inflate() {
+    final Context context = ApplicationProvider.getApplicationContext();
+    final ItemInflater inflater = new ItemInflater(context);
+    final ItemHierarchy items = inflater.inflate(R.xml.sud_benchmark_items);
+    assertEquals(15, items.getCount());
+
+    BenchmarkRunner.measure(
+        "ItemInflater.inflate",
+        /* budgetNanos= */ 5_000_000,
+        200,
+        () -> inflater.inflate(R.xml.sud_benchmark_items));
+  }
+
+  @Test
+  public void simpleInflater_inflate() {
+    final SimpleInflater<ItemHierarchy> inflater =
+        new ItemHierarchyInflater(ApplicationProvider.getApplicationContext());
+    final ItemHierarchy items = inflater.inflate(R.xml.sud_benchmark_items);
+    assertEquals(15, items.getCount());
+
+    BenchmarkRunner.measure(
+        "SimpleInflater.inflate (without reflection)",
+        /* budgetNanos= */ 5_000_000,
+        200,
+        () -> inflater.inflate(R.xml.sud_benchmark_items));
+  }
+
+  private static ItemGroup createItemGroup() {
+    final ItemGroup root = new ItemGroup();
+    for (int i = 0; i < GROUP_COUNT; i++) {
+      final ItemGroup group = new ItemGroup();
+      for (int j = 0; j < ITEMS_PER_GROUP; j++) {
+        group.addChild(new Item());
+      }
+      root.addChild(group);
+    }
+    return root;
+  }
+
+  /**
+   * Inflates the items by tag name without reflection, which isolates the XML parsing done by
+   * {@link SimpleInflater} from the constructor lookups of {@link ItemInflater}.
+   */
+  private static class ItemHierarchyInflater extends SimpleInflater<ItemHierarchy> {
+
+    private final Context context;
+
+    ItemHierarchyInflater(Context context) {
+      super(context.getResources());
+      this.context = context;
+    }
+
+    @Override
+    protected ItemHierarchy onCreateItem(String tagName, AttributeSet attrs) {
+      switch (tagName) {
+        case "ItemGroup":
+          return new ItemGroup(context, attrs);
+        case "Item":
+          return new Item(context, attrs);
+        default:
+          throw new IllegalArgumentException("Unknown item tag " + tagName);
+      }
+    }
+
+    @Override
+    protected void onAddChildItem(ItemHierarchy parent, ItemHierarchy child) {
+      ((ItemParent) parent).addChild(child);
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.util.SparseArray;
+import android.view.ContextThemeWrapper;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+import com.google.android.setupdesign.items.ExpandableSwitchItem;
+import com.google.android.setupdesign.items.Item;
+import com.google.android.setupdesign.items.ItemGroup;
+import com.google.android.setupdesign.items.ItemHierarchy;
+import com.google.android.setupdesign.items.ItemInflater;
+import com.google.android.setupdesign.items.ItemViewHolder;
+import com.google.android.setupdesign.items.RecyclerItemAdapter;
+import com.google.android.setupdesign.items.SwitchItem;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Benchmarks of the view holders created and bound by {@link RecyclerItemAdapter}. */
+@RunWith(RobolectricTestRunner.class)
+public class RecyclerItemAdapterBenchmark {
+
+  private RecyclerView recyclerView;
+  private RecyclerItemAdapter adapter;
+
+  @Before
+  public void setUp() {
+    final Context context =
+        new ContextThemeWrapper(
+            ApplicationProvider.getApplicationContext(), R.style.SudThemeGlif_Light);
+    final ItemHierarchy items = new ItemInflater(context).inflate(R.xml.sud_benchmark_items);
+    assertEquals(15, items.getCount());
+    adapter = new RecyclerItemAdapter(items);
+    recyclerView = new RecyclerView(context);
+    recyclerView.setLayoutManager(new LinearLayoutManager(context));
+    recyclerView.setAdapter(adapter);
+  }
+
+  @Test
+  public void onCreateViewHolder() {
+    final int viewType = adapter.getItemViewType(0);
+
+    BenchmarkRunner.measure(
+        "RecyclerItemAdapter.onCreateViewHolder",
+        /* budgetNanos= */ 10_000_000,
+        100,
+        () -> adapter.onCreateViewHolder(recyclerView, viewType));
+  }
+
+  @Test
+  public void onBindViewHolder() {
+    final int count = adapter.getItemCount();
+    // Bind every position to a holder of its own view type, as a recycled holder would be.
+    final SparseArray<ItemViewHolder> viewHolders = new SparseArray<>();
+    for (int position = 0; position < count; position++) {
+      final int viewType = adapter.getItemViewType(position);
+      if (viewHolders.get(viewType) == null) {
+        viewHolders.put(viewType, adapter.onCreateViewHolder(recyclerView, viewType));
+      }
+    }
+
+    BenchmarkRunner.measure(
+        "RecyclerItemAdapter.onBindViewHolder (all " + count + " positions)",
+        /* budgetNanos= */ 5_000_000,
+        200,
+        () -> {
+          for (int position = 0; position < count; position++) {
+            adapter.onBindViewHolder(viewHolders.get(adapter.getItemViewType(position)), position);
+          }
+        });
+  }
+
+  @Test
+  public void onBindViewHolder_defaultItem() {
+    final Item itemWithSummary = new Item();
+    itemWithSummary.setSummary("Summary");
+    measureRebind("sud_items_default", R.layout.sud_items_default, itemWithSummary, new Item());
+  }
+
+  @Test
+  public void onBindViewHolder_switchItem() {
+    final SwitchItem itemWithSummary = new SwitchItem();
+    itemWithSummary.setSummary("Summary");
+    measureRebind("sud_items_switch", R.layout.sud_items_switch, itemWithSummary, new SwitchItem());
+  }
+
+  @Test
+  public void onBindViewHolder_expandableSwitchItem() {
+    final ExpandableSwitchItem itemWithSummary = new ExpandableSwitchItem();
+    itemWithSummary.setCollapsedSummary("Summary");
+    measureRebind(
+        "sud_items_expandable_switch",
+        R.layout.sud_items_expandable_switch,
+        itemWithSummary,
+        new ExpandableSwitchItem());
+  }
+
+  /**
+   * Measures rebinding a single view holder to two items of the same layout, one with a summary
+   * and one without, as a recycled view holder is rebound while a list scrolls.
+   */
+  private void measureRebind(
+      String layoutName, int layoutRes, Item itemWithSummary, Item itemWithoutSummary) {
+    itemWithSummary.setTitle("Title");
+    itemWithoutSummary.setTitle("Title");
+    final ItemGroup items = new ItemGroup();
+    items.addChild(itemWithSummary);
+    items.addChild(itemWithoutSummary);
+    final RecyclerItemAdapter itemAdapter = new RecyclerItemAdapter(items);
+    recyclerView.setAdapter(itemAdapter);
+    assertEquals(layoutRes, itemAdapter.getItemViewType(0));
+    assertEquals(layoutRes, itemAdapter.getItemViewType(1));
+    final ItemViewHolder viewHolder = itemAdapter.onCreateViewHolder(recyclerView, layoutRes);
+
+    BenchmarkRunner.measure(
+        "RecyclerItemAdapter.onBindViewHolder (" + layoutName + ", 2 items)",
+        /* budgetNanos= */ 2_000_000,
+        500,
+        () -> {
+          itemAdapter.onBindViewHolder(viewHolder, 0);
+          itemAdapter.onBindViewHolder(viewHolder, 1);
+        });
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.benchmark;
+
+import static org.junit.Assert.assertNotSame;
+
+import android.content.Context;
+import androidx.test.core.app.ApplicationProvider;
+import com.google.android.setupdesign.view.RichTextView;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Benchmarks of the annotation processing of {@link RichTextView}. */
+@RunWith(RobolectricTestRunner.class)
+public class RichTextViewBenchmark {
+
+  @After
+  public void tearDown() {
+    RichTextView.clearRichTextCache();
+  }
+
+  @Test
+  public void getRichText_cached() {
+    final Context context = ApplicationProvider.getApplicationContext();
+    final CharSequence text = context.getText(R.string.sud_benchmark_rich_text);
+    assertNotSame(text, RichTextView.getRichText(context, text));
+
+    final long cachedNanos =
+        BenchmarkRunner.measure(
+            "RichTextView.getRichText (cached)",
+            /* budgetNanos= */ 50_000,
+            2_000,
+            () -> RichTextView.getRichText(context, text));
+
+    // A cache hit only copies the spans, so it must stay well below a full annotation pass.
+    BenchmarkRunner.assertFasterThan(
+        "RichTextView.getRichText (cached)", cachedNanos, measureUncached(context, text), 0.5);
+  }
+
+  @Test
+  public void getRichText_uncached() {
+    final Context context = ApplicationProvider.getApplicationContext();
+    measureUncached(context, context.getText(R.string.sud_benchmark_rich_text));
+  }
+
+  private static long measureUncached(Context context, CharSequence text) {
+    return BenchmarkRunner.measure(
+        "RichTextView.getRichText (uncached)",
+        /* budgetNanos= */ 2_000_000,
+        2_000,
+        () -> {
+          RichTextView.clearRichTextCache();
+          RichTextView.getRichText(context, text);
+        });
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.benchmark;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.View;
+import android.view.View.MeasureSpec;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.ArrayAdapter;
+import android.widget.FrameLayout;
+import android.widget.ListView;
+import android.widget.TextView;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.google.android.setupdesign.view.HeaderRecyclerView;
+import com.google.android.setupdesign.view.StickyHeaderListView;
+import com.google.android.setupdesign.view.StickyHeaderRecyclerView;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Benchmarks of the frames drawn while flinging a long list with a sticky header. Each frame
+ * scrolls the list by a fling-sized step, lays out the rows scrolled in and draws the list, which
+ * replays the sticky header once it is scrolled off.
+ *
+ * <p>The frames are drawn into a software canvas, so the header is drawn directly rather than from
+ * its {@code RenderNode} recording, which needs a hardware accelerated canvas. The benchmarks bound
+ * the cost the sticky header adds to each frame compared to the same list without it.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StickyHeaderFlingBenchmark {
+
+  private static final int WIDTH = 1080;
+  private static final int HEIGHT = 1920;
+  private static final int ROW_COUNT = 1_000;
+  private static final int ROW_HEIGHT = 150;
+  private static final int HEADER_HEIGHT = 400;
+  private static final int STICKY_HEIGHT = 200;
+  /** The distance scrolled per frame, as in a fast fling at 60 frames per second. */
+  private static final int FLING_STEP = 250;
+
+  private Activity activity;
+  private Bitmap bitmap;
+  private Canvas canvas;
+
+  @Before
+  public void setUp() {
+    activity = Robolectric.buildActivity(Activity.class).setup().get();
+    bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+    canvas = new Canvas(bitmap);
+  }
+
+  @After
+  public void tearDown() {
+    bitmap.recycle();
+  }
+
+  @Test
+  public void stickyHeaderRecyclerView_fling() {
+    final HeaderRecyclerView plainList = createRecyclerView(new HeaderRecyclerView(activity));
+    final long plainNanos =
+        BenchmarkRunner.measure(
+            "HeaderRecyclerView fling frame (without sticky header)",
+            /* budgetNanos= */ 10_000_000,
+            500,
+            new RecyclerViewFling(plainList));
+
+    final StickyHeaderRecyclerView stickyList =
+        createRecyclerView(new StickyHeaderRecyclerView(activity));
+    final long stickyNanos =
+        BenchmarkRunner.measure(
+            "StickyHeaderRecyclerView fling frame",
+            /* budgetNanos= */ 10_000_000,
+            500,
+            new RecyclerViewFling(stickyList));
+
+    BenchmarkRunner.assertFasterThan(
+        "StickyHeaderRecyclerView fling frame", stickyNanos, plainNanos, 1.5);
+  }
+
+  @Test
+  public void stickyHeaderListView_fling() {
+    final ListView plainList = createListView(new ListView(activity));
+    final long plainNanos =
+        BenchmarkRunner.measure(
+            "ListView fling frame (without sticky header)",
+            /* budgetNanos= */ 10_000_000,
+            500,
+            new ListViewFling(plainList));
+
+    final StickyHeaderListView stickyList = createListView(new StickyHeaderListView(activity));
+    final long stickyNanos =
+        BenchmarkRunner.measure(
+            "StickyHeaderListView fling frame",
+            /* budgetNanos= */ 10_000_000,
+            500,
+            new ListViewFling(stickyList));
+
+    BenchmarkRunner.assertFasterThan(
+        "StickyHeaderListView fling frame", stickyNanos, plainNanos, 1.5);
+  }
+
+  private <T extends HeaderRecyclerView> T createRecyclerView(T list) {
+    list.setLayoutManager(new LinearLayoutManager(activity));
+    list.setHeader(createHeader(activity));
+    list.setAdapter(new HeaderRecyclerView.HeaderAdapter<>(new RowAdapter()));
+    layout(list);
+    return list;
+  }
+
+  private <T extends ListView> T createListView(T list) {
+    list.addHeaderView(createHeader(activity), null, false);
+    final String[] rows = new String[ROW_COUNT];
+    for (int i = 0; i < ROW_COUNT; i++) {
+      rows[i] = "Row " + i;
+    }
+    list.setAdapter(new ArrayAdapter<>(activity, android.R.layout.simple_list_item_1, rows));
+    layout(list);
+    return list;
+  }
+
+  private void layout(View list) {
+    activity.setContentView(list);
+    list.measure(
+        MeasureSpec.makeMeasureSpec(WIDTH, MeasureSpec.EXACTLY),
+        MeasureSpec.makeMeasureSpec(HEIGHT, MeasureSpec.EXACTLY));
+    list.layout(0, 0, WIDTH, HEIGHT);
+    assertTrue(list.canScrollVertically(1));
+    assertFalse(list.canScrollVertically(-1));
+  }
+
+  private static View createHeader(Context context) {
+    final FrameLayout header = new FrameLayout(context);
+    // The list view header needs list view layout params, which any other parent converts.
+    header.setLayoutParams(
+        new AbsListView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, HEADER_HEIGHT));
+    final TextView sticky = new TextView(context);
+    sticky.setText("Sticky header");
+    sticky.setTag("sticky");
+    header.addView(
+        sticky, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, STICKY_HEIGHT));
+    return header;
+  }
+
+  /** Draws one frame per run, flinging down the list and back up again once it reaches an end. */
+  private abstract class Fling implements Runnable {
+
+    private final View list;
+    private int direction = 1;
+
+    Fling(View list) {
+      this.list = list;
+    }
+
+    @Override
+    public void run() {
+      if (!list.canScrollVertically(direction)) {
+        direction = -direction;
+      }
+      scrollBy(direction * FLING_STEP);
+      list.draw(canvas);
+    }
+
+    abstract void scrollBy(int dy);
+  }
+
+  private class RecyclerViewFling extends Fling {
+
+    private final RecyclerView list;
+
+    RecyclerViewFling(RecyclerView list) {
+      super(list);
+      this.list = list;
+    }
+
+    @Override
+    void scrollBy(int dy) {
+      list.scrollBy(0, dy);
+    }
+  }
+
+  private class ListViewFling extends Fling {
+
+    private final ListView list;
+
+    ListViewFling(ListView list) {
+      super(list);
+      this.list = list;
+    }
+
+    @Override
+    void scrollBy(int dy) {
+      list.scrollListBy(dy);
+    }
+  }
+
+  private static class RowAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+      final TextView row = new TextView(parent.getContext());
+      row.setLayoutParams(
+          new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ROW_HEIGHT));
+      return new RecyclerView.ViewHolder(row) {};
+    }
+
+    @Override
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+      ((TextView) holder.itemView).setText("Row " + position);
+    }
+
+    @Override
+    public int getItemCount() {
+      return ROW_COUNT;
+    }
+  }
+}
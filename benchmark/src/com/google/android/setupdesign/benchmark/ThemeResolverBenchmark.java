@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.android.setupdesign.util.ThemeHelper;
+import com.google.android.setupdesign.util.ThemeResolver;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Benchmarks of {@link ThemeResolver}, which runs before every setup activity is created. */
+@RunWith(RobolectricTestRunner.class)
+public class ThemeResolverBenchmark {
+
+  private static final String[] THEMES = {
+    ThemeHelper.THEME_GLIF_V3_LIGHT,
+    ThemeHelper.THEME_GLIF_V2,
+    ThemeHelper.THEME_GLIF_LIGHT,
+    ThemeHelper.THEME_MATERIAL,
+    "unknown_theme",
+  };
+
+  @Test
+  public void resolve() {
+    final ThemeResolver resolver =
+        new ThemeResolver.Builder()
+            .setDefaultTheme(R.style.SudThemeGlif_Light)
+            .setOldestSupportedTheme(ThemeHelper.THEME_GLIF)
+            .setUseDayNight(true)
+            .build();
+    assertEquals(
+        R.style.SudThemeGlifV3_DayNight,
+        resolver.resolve(ThemeHelper.THEME_GLIF_V3_LIGHT, /* suppressDayNight= */ false));
+
+    BenchmarkRunner.measure(
+        "ThemeResolver.resolve (" + THEMES.length + " themes)",
+        /* budgetNanos= */ 50_000,
+        10_000,
+        () -> {
+          for (String theme : THEMES) {
+            resolver.resolve(theme, /* suppressDayNight= */ false);
+            resolver.resolve(theme, /* suppressDayNight= */ true);
+          }
+        });
+  }
+}
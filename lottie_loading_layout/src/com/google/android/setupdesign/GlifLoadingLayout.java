@@ -22,6 +22,7 @@ import android.animation.Animator;
 import android.animation.Animator.AnimatorListener;
 import android.annotation.TargetApi;
 import android.app.Activity;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.Intent;
 import android.content.res.TypedArray;
@@ -47,6 +48,7 @@ import androidx.annotation.RawRes;
 import androidx.annotation.StringDef;
 import androidx.annotation.VisibleForTesting;
 import com.airbnb.lottie.LottieAnimationView;
+import com.airbnb.lottie.LottieCompositionFactory;
 import com.airbnb.lottie.LottieDrawable;
 import com.airbnb.lottie.LottieProperty;
 import com.airbnb.lottie.SimpleColorFilter;
@@ -62,7 +64,9 @@ import com.google.android.setupcompat.util.BuildCompatUtils;
 import com.google.android.setupdesign.lottieloadinglayout.R;
 import com.google.android.setupdesign.view.IllustrationVideoView;
 import com.google.android.setupdesign.util.LayoutStyler;
+import com.google.android.setupdesign.util.MemoryTrimHelper;
 import java.io.InputStream;
+import java.io.PrintWriter;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
@@ -97,6 +101,31 @@ public class GlifLoadingLayout extends GlifLayout {
   @VisibleForTesting
   public List<LottieAnimationFinishListener> animationFinishListeners = new ArrayList<>();
 
+  private final MemoryTrimHelper.Trimmable trimmable =
+      new MemoryTrimHelper.Trimmable() {
+        @Override
+        public void onTrimMemory(int level) {
+          // The color filters are loaded again from the partner configs the next time the theme
+          // customization is applied.
+          customizationMap.clear();
+          // The compositions are parsed again the next time they are loaded, only worth it when
+          // the UI is hidden.
+          if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            LottieCompositionFactory.clearCache(getContext());
+          }
+        }
+
+        @Override
+        public long getRetainedBytes() {
+          return MemoryTrimHelper.UNKNOWN_SIZE;
+        }
+
+        @Override
+        public void dump(@NonNull String prefix, @NonNull PrintWriter writer) {
+          writer.println(prefix + "customizations=" + customizationMap.size());
+        }
+      };
+
   public GlifLoadingLayout(Context context) {
     this(context, 0, 0);
   }
@@ -197,6 +226,18 @@ public class GlifLoadingLayout extends GlifLayout {
     }
   }
 
+  @Override
+  protected void onAttachedToWindow() {
+    super.onAttachedToWindow();
+    MemoryTrimHelper.register("GlifLoadingLayout", trimmable);
+  }
+
+  @Override
+  protected void onDetachedFromWindow() {
+    MemoryTrimHelper.unregister(trimmable);
+    super.onDetachedFromWindow();
+  }
+
   @Override
   protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
     super.onMeasure(widthMeasureSpec, heightMeasureSpec);
@@ -21,9 +21,11 @@ import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
+import android.util.SparseBooleanArray;
 import androidx.recyclerview.widget.RecyclerView;
 import android.view.View;
 import androidx.annotation.IntDef;
+import androidx.annotation.Nullable;
 import androidx.core.view.ViewCompat;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -80,6 +82,56 @@ public class DividerItemDecoration extends RecyclerView.ItemDecoration {
   private int dividerIntrinsicHeight;
   @DividerCondition private int dividerCondition;
 
+  private boolean cacheDividerDecisions = false;
+
+  /** Cached results of {@link #shouldDrawDividerBelow}, keyed by adapter position. */
+  private final SparseBooleanArray dividerDecisions = new SparseBooleanArray();
+
+  /** The RecyclerView whose adapter is observed while divider decisions are cached. */
+  @Nullable private RecyclerView observedParent;
+
+  @Nullable private RecyclerView.Adapter<?> observedAdapter;
+
+  private final RecyclerView.AdapterDataObserver adapterDataObserver =
+      new RecyclerView.AdapterDataObserver() {
+        @Override
+        public void onChanged() {
+          onAdapterDataChanged();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+          onAdapterDataChanged();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+          onAdapterDataChanged();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+          onAdapterDataChanged();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+          onAdapterDataChanged();
+        }
+      };
+
+  private final View.OnAttachStateChangeListener parentAttachStateListener =
+      new View.OnAttachStateChangeListener() {
+        @Override
+        public void onViewAttachedToWindow(View view) {}
+
+        @Override
+        public void onViewDetachedFromWindow(View view) {
+          // Observing starts again on the next draw, if the decoration is still used.
+          observe(null);
+        }
+      };
+
   public DividerItemDecoration() {}
 
   public DividerItemDecoration(Context context) {
@@ -104,12 +156,16 @@ public class DividerItemDecoration extends RecyclerView.ItemDecoration {
     if (divider == null) {
       return;
     }
+    if (cacheDividerDecisions) {
+      // Cached decisions are only used while the adapter is observed, see getDividerBelow.
+      observe(parent);
+    }
     final int childCount = parent.getChildCount();
     final int width = parent.getWidth();
     final int dividerHeight = this.dividerHeight != 0 ? this.dividerHeight : dividerIntrinsicHeight;
     for (int childViewIndex = 0; childViewIndex < childCount; childViewIndex++) {
       final View view = parent.getChildAt(childViewIndex);
-      if (shouldDrawDividerBelow(view, parent)) {
+      if (getDividerBelow(view, parent)) {
         final int top = (int) ViewCompat.getY(view) + view.getHeight();
         divider.setBounds(0, top, width, top + dividerHeight);
         divider.draw(c);
@@ -120,11 +176,92 @@ public class DividerItemDecoration extends RecyclerView.ItemDecoration {
   @Override
   public void getItemOffsets(
       Rect outRect, View view, RecyclerView parent, RecyclerView.State state) {
-    if (shouldDrawDividerBelow(view, parent)) {
+    if (getDividerBelow(view, parent)) {
       outRect.bottom = dividerHeight != 0 ? dividerHeight : dividerIntrinsicHeight;
     }
   }
 
+  /**
+   * Returns whether to draw the divider below the given view, from the cached decisions if {@link
+   * #setCacheDividerDecisions(boolean)} is enabled and the adapter of {@code parent} is observed.
+   * Until {@link #onDraw} starts observing it, for example during the first layout or right after
+   * the adapter is swapped, the decisions are evaluated without the cache.
+   */
+  private boolean getDividerBelow(View view, RecyclerView parent) {
+    if (!cacheDividerDecisions
+        || parent != observedParent
+        || parent.getAdapter() != observedAdapter) {
+      return shouldDrawDividerBelow(view, parent);
+    }
+    final RecyclerView.ViewHolder holder = parent.getChildViewHolder(view);
+    final int position = holder.getAdapterPosition();
+    if (position == RecyclerView.NO_POSITION || holder.getLayoutPosition() != position) {
+      // Pending adapter updates or animations, the positions are not stable yet.
+      return shouldDrawDividerBelow(view, parent);
+    }
+    final int cachedIndex = dividerDecisions.indexOfKey(position);
+    if (cachedIndex >= 0) {
+      return dividerDecisions.valueAt(cachedIndex);
+    }
+    final boolean dividerBelow = shouldDrawDividerBelow(view, parent);
+    // Without the next item laid out the decision may be incomplete, so only cache it once the
+    // next item is known.
+    if (position == parent.getAdapter().getItemCount() - 1
+        || parent.findViewHolderForLayoutPosition(position + 1) != null) {
+      dividerDecisions.put(position, dividerBelow);
+    }
+    return dividerBelow;
+  }
+
+  /**
+   * Observes the adapter of {@code parent} to invalidate the cached decisions, or stops observing
+   * if {@code parent} is null. The adapter is observed until the parent is detached from its
+   * window, this decoration is removed from the parent, or the parent's adapter changes. Observing
+   * starts from {@link #onDraw}, once per frame rather than once per child.
+   */
+  private void observe(@Nullable RecyclerView parent) {
+    final RecyclerView.Adapter<?> adapter = parent != null ? parent.getAdapter() : null;
+    if (parent == observedParent && adapter == observedAdapter) {
+      return;
+    }
+    if (observedAdapter != null) {
+      observedAdapter.unregisterAdapterDataObserver(adapterDataObserver);
+    }
+    if (observedParent != null && observedParent != parent) {
+      observedParent.removeOnAttachStateChangeListener(parentAttachStateListener);
+    }
+    if (parent != null && parent != observedParent) {
+      parent.addOnAttachStateChangeListener(parentAttachStateListener);
+    }
+    observedParent = parent;
+    observedAdapter = adapter;
+    if (adapter != null) {
+      adapter.registerAdapterDataObserver(adapterDataObserver);
+    }
+    dividerDecisions.clear();
+  }
+
+  private void onAdapterDataChanged() {
+    if (!isDecorating(observedParent) || observedParent.getAdapter() != observedAdapter) {
+      // Removed from the RecyclerView or the adapter was swapped, neither of which can be observed
+      // directly. Observing starts again on the next draw, if the decoration is still used.
+      observe(null);
+    }
+    invalidateDividerDecisions();
+  }
+
+  private boolean isDecorating(@Nullable RecyclerView parent) {
+    if (parent == null) {
+      return false;
+    }
+    for (int i = 0; i < parent.getItemDecorationCount(); i++) {
+      if (parent.getItemDecorationAt(i) == this) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   protected boolean shouldDrawDividerBelow(View view, RecyclerView parent) {
     final RecyclerView.ViewHolder holder = parent.getChildViewHolder(view);
     final int index = holder.getLayoutPosition();
@@ -213,6 +350,7 @@ public class DividerItemDecoration extends RecyclerView.ItemDecoration {
    */
   public void setDividerCondition(@DividerCondition int dividerCondition) {
     this.dividerCondition = dividerCondition;
+    invalidateDividerDecisions();
   }
 
   /**
@@ -224,4 +362,29 @@ public class DividerItemDecoration extends RecyclerView.ItemDecoration {
   public int getDividerCondition() {
     return dividerCondition;
   }
+
+  /**
+   * Sets whether the results of {@link #shouldDrawDividerBelow(View, RecyclerView)} are cached per
+   * adapter position, instead of being evaluated for every child on every frame. The cache is
+   * cleared whenever the adapter notifies a change. If {@link #isDividerAllowedAbove} or {@link
+   * #isDividerAllowedBelow} can change without notifying the adapter, call {@link
+   * #invalidateDividerDecisions()} when they do. Disabled by default.
+   */
+  public void setCacheDividerDecisions(boolean cacheDividerDecisions) {
+    this.cacheDividerDecisions = cacheDividerDecisions;
+    if (!cacheDividerDecisions) {
+      observe(null);
+    }
+    invalidateDividerDecisions();
+  }
+
+  /** Returns whether divider decisions are cached, see {@link #setCacheDividerDecisions}. */
+  public boolean isCacheDividerDecisions() {
+    return cacheDividerDecisions;
+  }
+
+  /** Clears the cached divider decisions, see {@link #setCacheDividerDecisions(boolean)}. */
+  public void invalidateDividerDecisions() {
+    dividerDecisions.clear();
+  }
 }
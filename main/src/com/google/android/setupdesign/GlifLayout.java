@@ -29,6 +29,7 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewStub;
+import android.view.ViewTreeObserver;
 import android.widget.Button;
 import android.widget.FrameLayout;
 import android.widget.ProgressBar;
@@ -42,6 +43,7 @@ import androidx.annotation.StringRes;
 import com.google.android.setupcompat.PartnerCustomizationLayout;
 import com.google.android.setupcompat.partnerconfig.PartnerConfig;
 import com.google.android.setupcompat.partnerconfig.PartnerConfigHelper;
+import com.google.android.setupcompat.template.Mixin;
 import com.google.android.setupcompat.template.StatusBarMixin;
 import com.google.android.setupdesign.template.DescriptionMixin;
 import com.google.android.setupdesign.template.HeaderMixin;
@@ -50,8 +52,12 @@ import com.google.android.setupdesign.template.IllustrationProgressMixin;
 import com.google.android.setupdesign.template.ProgressBarMixin;
 import com.google.android.setupdesign.template.RequireScrollMixin;
 import com.google.android.setupdesign.template.ScrollViewScrollHandlingDelegate;
+import com.google.android.setupdesign.transition.TransitionMetrics;
 import com.google.android.setupdesign.util.DescriptionStyler;
+import com.google.android.setupdesign.util.LayoutPartnerConfigs;
 import com.google.android.setupdesign.util.LayoutStyler;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Layout for the GLIF theme used in Setup Wizard for N.
@@ -81,6 +87,23 @@ public class GlifLayout extends PartnerCustomizationLayout {
 
   private boolean applyPartnerHeavyThemeResource = false;
 
+  /** Creates a mixin on first access, see {@link #registerLazyMixin(Class, MixinFactory)}. */
+  protected interface MixinFactory<M extends Mixin> {
+    M create();
+  }
+
+  @Nullable private Map<Class<? extends Mixin>, MixinFactory<? extends Mixin>> lazyMixinFactories;
+
+  /**
+   * The partner configs shared until the layout is inflated or attached to a window, see {@link
+   * #getPartnerConfigs}.
+   */
+  @Nullable private LayoutPartnerConfigs partnerConfigs;
+
+  // Set from onInflateTemplate, which is called by the super constructor. Must not have an
+  // initializer, which would reset it once the super constructor returns.
+  @Nullable private GlifLayoutMetrics metrics;
+
   /** The color of the background. If null, the color will inherit from primaryColor. */
   @Nullable private ColorStateList backgroundBaseColor;
 
@@ -115,25 +138,33 @@ public class GlifLayout extends PartnerCustomizationLayout {
       return;
     }
 
+    if (metrics == null && GlifLayoutMetrics.isEnabled()) {
+      // The template was inflated by a subclass without going through onInflateTemplate.
+      metrics = new GlifLayoutMetrics();
+    }
+
     TypedArray a =
         getContext().obtainStyledAttributes(attrs, R.styleable.SudGlifLayout, defStyleAttr, 0);
     boolean usePartnerHeavyTheme =
         a.getBoolean(R.styleable.SudGlifLayout_sudUsePartnerHeavyTheme, false);
-    applyPartnerHeavyThemeResource = shouldApplyPartnerResource() && usePartnerHeavyTheme;
+    partnerConfigs = new LayoutPartnerConfigs(getContext(), shouldApplyPartnerResource());
+    applyPartnerHeavyThemeResource =
+        partnerConfigs.shouldApplyPartnerResource() && usePartnerHeavyTheme;
 
     registerMixin(HeaderMixin.class, new HeaderMixin(this, attrs, defStyleAttr));
     registerMixin(DescriptionMixin.class, new DescriptionMixin(this, attrs, defStyleAttr));
     registerMixin(IconMixin.class, new IconMixin(this, attrs, defStyleAttr));
     registerMixin(ProgressBarMixin.class, new ProgressBarMixin(this, attrs, defStyleAttr));
-    registerMixin(IllustrationProgressMixin.class, new IllustrationProgressMixin(this));
-    final RequireScrollMixin requireScrollMixin = new RequireScrollMixin(this);
-    registerMixin(RequireScrollMixin.class, requireScrollMixin);
-
-    final ScrollView scrollView = getScrollView();
-    if (scrollView != null) {
-      requireScrollMixin.setScrollHandlingDelegate(
-          new ScrollViewScrollHandlingDelegate(requireScrollMixin, scrollView));
-    }
+    // Mixins which are not configured by XML attributes and only used by some screens are
+    // created on first access, see #getMixin.
+    registerLazyMixin(IllustrationProgressMixin.class, () -> new IllustrationProgressMixin(this));
+    registerLazyMixin(
+        RequireScrollMixin.class,
+        () -> {
+          final RequireScrollMixin requireScrollMixin = new RequireScrollMixin(this);
+          onRequireScrollMixinCreated(requireScrollMixin);
+          return requireScrollMixin;
+        });
 
     ColorStateList primaryColor = a.getColorStateList(R.styleable.SudGlifLayout_sudColorPrimary);
     if (primaryColor != null) {
@@ -145,14 +176,14 @@ public class GlifLayout extends PartnerCustomizationLayout {
 
     View view = findManagedViewById(R.id.sud_layout_content);
     if (view != null) {
-      if (shouldApplyPartnerResource()) {
+      if (partnerConfigs.shouldApplyPartnerResource()) {
         // The margin of content is defined by @style/SudContentFrame. The Setupdesign library
         // cannot obtain the content resource ID of the client, so the value of the content margin
         // cannot be adjusted through GlifLayout. If the margin sides are changed through the
         // partner config, it can only be based on the increased or decreased value to adjust the
         // value of pading. In this way, the value of content margin plus padding will be equal to
         // the value of partner config.
-        LayoutStyler.applyPartnerCustomizationExtraPaddingStyle(view);
+        LayoutStyler.applyPartnerCustomizationExtraPaddingStyle(view, partnerConfigs);
       }
 
       // {@class GlifPreferenceLayout} Inherited from {@class GlifRecyclerLayout}. The API would
@@ -180,14 +211,119 @@ public class GlifLayout extends PartnerCustomizationLayout {
     a.recycle();
   }
 
+  /**
+   * Returns the mixin of the given class. Mixins registered with {@link #registerLazyMixin} are
+   * created and registered on the first call.
+   */
+  @Override
+  public <M extends Mixin> M getMixin(Class<M> cls) {
+    M mixin = super.getMixin(cls);
+    // lazyMixinFactories is null while the superclass constructor runs.
+    if (mixin == null && lazyMixinFactories != null) {
+      final MixinFactory<? extends Mixin> factory = lazyMixinFactories.remove(cls);
+      if (factory != null) {
+        mixin = cls.cast(factory.create());
+        registerMixin(cls, mixin);
+      }
+    }
+    return mixin;
+  }
+
+  /**
+   * Registers a mixin which is created by {@code factory} when it is first requested through {@link
+   * #getMixin(Class)}, rather than when the layout is constructed.
+   */
+  protected <M extends Mixin> void registerLazyMixin(Class<M> cls, MixinFactory<M> factory) {
+    if (lazyMixinFactories == null) {
+      lazyMixinFactories = new HashMap<>();
+    }
+    lazyMixinFactories.put(cls, factory);
+  }
+
+  /**
+   * Called when the {@link RequireScrollMixin} of this layout is created, to set up the delegate
+   * handling the scrolling container of the template.
+   */
+  protected void onRequireScrollMixinCreated(RequireScrollMixin requireScrollMixin) {
+    final ScrollView scrollView = getScrollView();
+    if (scrollView != null) {
+      requireScrollMixin.setScrollHandlingDelegate(
+          new ScrollViewScrollHandlingDelegate(requireScrollMixin, scrollView));
+    }
+  }
+
   @Override
   protected void onFinishInflate() {
     super.onFinishInflate();
-    getMixin(IconMixin.class).tryApplyPartnerCustomizationStyle();
-    getMixin(HeaderMixin.class).tryApplyPartnerCustomizationStyle();
-    getMixin(DescriptionMixin.class).tryApplyPartnerCustomizationStyle();
-    getMixin(ProgressBarMixin.class).tryApplyPartnerCustomizationStyle();
+    final LayoutPartnerConfigs partnerConfigs = getPartnerConfigs();
+    getMixin(IconMixin.class).tryApplyPartnerCustomizationStyle(partnerConfigs);
+    getMixin(HeaderMixin.class).tryApplyPartnerCustomizationStyle(partnerConfigs);
+    getMixin(DescriptionMixin.class).tryApplyPartnerCustomizationStyle(partnerConfigs);
+    getMixin(ProgressBarMixin.class).tryApplyPartnerCustomizationStyle(partnerConfigs);
     tryApplyPartnerCustomizationStyleToShortDescription();
+    this.partnerConfigs = null;
+  }
+
+  @Override
+  protected void onAttachedToWindow() {
+    super.onAttachedToWindow();
+    // Layouts which are not inflated from XML stop sharing the partner configs here.
+    partnerConfigs = null;
+    if (metrics != null) {
+      metrics.onAttachedToWindow(this);
+    }
+    if (TransitionMetrics.hasPendingTransition()) {
+      // Completes the transition timing started by the previous screen on the first draw.
+      final ViewTreeObserver observer = getViewTreeObserver();
+      observer.addOnPreDrawListener(
+          new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+              getViewTreeObserver().removeOnPreDrawListener(this);
+              TransitionMetrics.onFirstDraw();
+              return true;
+            }
+          });
+    }
+  }
+
+  @Override
+  protected void onDetachedFromWindow() {
+    super.onDetachedFromWindow();
+    if (metrics != null) {
+      metrics.onDetachedFromWindow(this);
+    }
+  }
+
+  @Override
+  protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+    super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+    final HeaderMixin headerMixin = getMixin(HeaderMixin.class);
+    if (headerMixin != null && headerMixin.onLayoutMeasured()) {
+      // The auto text size of the header depends on its measured width. Measure again with the
+      // resolved size, instead of laying out twice.
+      super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+    }
+    if (metrics != null) {
+      metrics.onMeasure();
+    }
+  }
+
+  @Override
+  protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+    super.onLayout(changed, left, top, right, bottom);
+    if (metrics != null) {
+      metrics.onLayout();
+    }
+  }
+
+  /**
+   * Returns the performance metrics of this layout, or null if they are not collected, see {@link
+   * GlifLayoutMetrics#setListener(GlifLayoutMetrics.Listener)}.
+   */
+  @Nullable
+  public GlifLayoutMetrics getMetrics() {
+    return metrics;
   }
 
   // TODO: remove when all sud_layout_description has migrated to
@@ -197,34 +333,27 @@ public class GlifLayout extends PartnerCustomizationLayout {
     if (description != null) {
       if (applyPartnerHeavyThemeResource) {
         DescriptionStyler.applyPartnerCustomizationHeavyStyle(description);
-      } else if (shouldApplyPartnerResource()) {
+      } else if (getPartnerConfigs().shouldApplyPartnerResource()) {
         DescriptionStyler.applyPartnerCustomizationLightStyle(description);
       }
     }
   }
 
   protected void updateLandscapeMiddleHorizontalSpacing() {
+    final LayoutPartnerConfigs partnerConfigs = getPartnerConfigs();
     int horizontalSpacing =
         getResources().getDimensionPixelSize(R.dimen.sud_glif_land_middle_horizontal_spacing);
-    if (shouldApplyPartnerResource()
-        && PartnerConfigHelper.get(getContext())
-            .isPartnerConfigAvailable(PartnerConfig.CONFIG_LAND_MIDDLE_HORIZONTAL_SPACING)) {
+    if (partnerConfigs.shouldApplyPartnerConfig(
+        PartnerConfig.CONFIG_LAND_MIDDLE_HORIZONTAL_SPACING)) {
       horizontalSpacing =
-          (int)
-              PartnerConfigHelper.get(getContext())
-                  .getDimension(getContext(), PartnerConfig.CONFIG_LAND_MIDDLE_HORIZONTAL_SPACING);
+          (int) partnerConfigs.getDimension(PartnerConfig.CONFIG_LAND_MIDDLE_HORIZONTAL_SPACING);
     }
 
     View headerView = this.findManagedViewById(R.id.sud_landscape_header_area);
     if (headerView != null) {
       int layoutMarginEnd;
-      if (shouldApplyPartnerResource()
-          && PartnerConfigHelper.get(getContext())
-              .isPartnerConfigAvailable(PartnerConfig.CONFIG_LAYOUT_MARGIN_END)) {
-        layoutMarginEnd =
-            (int)
-                PartnerConfigHelper.get(getContext())
-                    .getDimension(getContext(), PartnerConfig.CONFIG_LAYOUT_MARGIN_END);
+      if (partnerConfigs.shouldApplyPartnerConfig(PartnerConfig.CONFIG_LAYOUT_MARGIN_END)) {
+        layoutMarginEnd = (int) partnerConfigs.getDimension(PartnerConfig.CONFIG_LAYOUT_MARGIN_END);
       } else {
         TypedArray a = getContext().obtainStyledAttributes(new int[] {R.attr.sudMarginEnd});
         layoutMarginEnd = a.getDimensionPixelSize(0, 0);
@@ -249,13 +378,9 @@ public class GlifLayout extends PartnerCustomizationLayout {
     View contentView = this.findManagedViewById(R.id.sud_landscape_content_area);
     if (contentView != null) {
       int layoutMarginStart;
-      if (shouldApplyPartnerResource()
-          && PartnerConfigHelper.get(getContext())
-              .isPartnerConfigAvailable(PartnerConfig.CONFIG_LAYOUT_MARGIN_START)) {
+      if (partnerConfigs.shouldApplyPartnerConfig(PartnerConfig.CONFIG_LAYOUT_MARGIN_START)) {
         layoutMarginStart =
-            (int)
-                PartnerConfigHelper.get(getContext())
-                    .getDimension(getContext(), PartnerConfig.CONFIG_LAYOUT_MARGIN_START);
+            (int) partnerConfigs.getDimension(PartnerConfig.CONFIG_LAYOUT_MARGIN_START);
       } else {
         TypedArray a = getContext().obtainStyledAttributes(new int[] {R.attr.sudMarginStart});
         layoutMarginStart = a.getDimensionPixelSize(0, 0);
@@ -286,7 +411,46 @@ public class GlifLayout extends PartnerCustomizationLayout {
     if (template == 0) {
       template = R.layout.sud_glif_template;
     }
-    return inflateTemplate(inflater, R.style.SudThemeGlif_Light, template);
+    template = getFlattenedTemplate(inflater.getContext(), template);
+    if (GlifLayoutMetrics.isEnabled()) {
+      metrics = new GlifLayoutMetrics();
+    }
+    View templateView = null;
+    if (GlifTemplatePreInflater.isEnabled()) {
+      templateView =
+          GlifTemplatePreInflater.take(inflater.getContext(), template, R.style.SudThemeGlif_Light);
+    }
+    if (templateView == null) {
+      templateView = inflateTemplate(inflater, R.style.SudThemeGlif_Light, template);
+    }
+    if (metrics != null) {
+      metrics.onTemplateInflated();
+    }
+    return templateView;
+  }
+
+  /**
+   * Returns the flattened variant of the given default template if {@code sudUseFlattenedTemplate}
+   * is set in the theme of {@code context}, or the template itself otherwise. The flattened
+   * variants center the card with their root instead of with spacer views, saving a level of
+   * nesting and two views to measure on large screens.
+   */
+  @LayoutRes
+  static int getFlattenedTemplate(Context context, @LayoutRes int template) {
+    final int flattenedTemplate;
+    if (template == R.layout.sud_glif_template) {
+      flattenedTemplate = R.layout.sud_glif_template_flat;
+    } else if (template == R.layout.sud_glif_list_template) {
+      flattenedTemplate = R.layout.sud_glif_list_template_flat;
+    } else if (template == R.layout.sud_glif_recycler_template) {
+      flattenedTemplate = R.layout.sud_glif_recycler_template_flat;
+    } else {
+      return template;
+    }
+    TypedArray a = context.obtainStyledAttributes(new int[] {R.attr.sudUseFlattenedTemplate});
+    final boolean useFlattenedTemplate = a.getBoolean(0, false);
+    a.recycle();
+    return useFlattenedTemplate ? flattenedTemplate : template;
   }
 
   @Override
@@ -502,6 +666,21 @@ public class GlifLayout extends PartnerCustomizationLayout {
             && PartnerConfigHelper.shouldApplyExtendedPartnerConfig(getContext()));
   }
 
+  /**
+   * Returns the partner configs for this layout. From the initialization of the layout, including
+   * the initialization of subclasses, until the end of {@link #onFinishInflate()} or until the
+   * layout is attached to a window, the same instance is returned, so each config is resolved once
+   * no matter how many times the layout and its mixins query it. Otherwise, e.g. when a setter
+   * updates the layout at runtime, a new instance is returned so that the configs follow the
+   * current configuration.
+   */
+  protected LayoutPartnerConfigs getPartnerConfigs() {
+    if (partnerConfigs != null) {
+      return partnerConfigs;
+    }
+    return new LayoutPartnerConfigs(getContext(), shouldApplyPartnerResource());
+  }
+
   /** Updates the background color of this layout with the partner-customizable background color. */
   private void updateContentBackgroundColorWithPartnerConfig() {
     // If full dynamic color enabled which means this activity is running outside of setup
@@ -511,24 +690,15 @@ public class GlifLayout extends PartnerCustomizationLayout {
     }
 
     @ColorInt
-    int color =
-        PartnerConfigHelper.get(getContext())
-            .getColor(getContext(), PartnerConfig.CONFIG_LAYOUT_BACKGROUND_COLOR);
+    int color = getPartnerConfigs().getColor(PartnerConfig.CONFIG_LAYOUT_BACKGROUND_COLOR);
     this.getRootView().setBackgroundColor(color);
   }
 
   @TargetApi(VERSION_CODES.JELLY_BEAN_MR1)
   protected void tryApplyPartnerCustomizationContentPaddingTopStyle(View view) {
-    Context context = view.getContext();
-    boolean partnerPaddingTopAvailable =
-        PartnerConfigHelper.get(context)
-            .isPartnerConfigAvailable(PartnerConfig.CONFIG_CONTENT_PADDING_TOP);
-
-    if (shouldApplyPartnerResource() && partnerPaddingTopAvailable) {
-      int paddingTop =
-          (int)
-              PartnerConfigHelper.get(context)
-                  .getDimension(context, PartnerConfig.CONFIG_CONTENT_PADDING_TOP);
+    final LayoutPartnerConfigs partnerConfigs = getPartnerConfigs();
+    if (partnerConfigs.shouldApplyPartnerConfig(PartnerConfig.CONFIG_CONTENT_PADDING_TOP)) {
+      int paddingTop = (int) partnerConfigs.getDimension(PartnerConfig.CONFIG_CONTENT_PADDING_TOP);
 
       if (paddingTop != view.getPaddingTop()) {
         view.setPadding(
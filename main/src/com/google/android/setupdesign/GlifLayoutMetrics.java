@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.setupdesign;
+
+import android.annotation.TargetApi;
+import android.app.Activity;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Build;
+import android.os.Build.VERSION_CODES;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Display;
+import android.view.FrameMetrics;
+import android.view.ViewTreeObserver;
+import android.view.Window;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in performance metrics of the screen shown by a {@link GlifLayout}: how long the template
+ * took to inflate, how long until the layout was first drawn and how many measure and layout passes
+ * it took to get there, and how many frames were janky while the layout was attached. Metrics are
+ * only collected while a {@link Listener} is set with {@link #setListener(Listener)}, which the app
+ * can use to forward them to its own telemetry.
+ *
+ * <p>Frame counts rely on {@link FrameMetrics}, which is available on N and above for hardware
+ * accelerated windows of an activity, see {@link #isFrameMetricsAvailable()}. All methods are
+ * expected to be called from the main thread.
+ */
+public final class GlifLayoutMetrics {
+
+  private static final String TAG = "GlifLayoutMetrics";
+
+  /** Receives the metrics of {@link GlifLayout} screens. */
+  public interface Listener {
+
+    /** Called on the first draw of the layout. Frame counts are not available yet. */
+    void onFirstDraw(@NonNull GlifLayout layout, @NonNull GlifLayoutMetrics metrics);
+
+    /** Called when the layout is detached from its window, with the final frame counts. */
+    void onDetached(@NonNull GlifLayout layout, @NonNull GlifLayoutMetrics metrics);
+  }
+
+  @Nullable private static Listener listener;
+
+  /** Sets the listener receiving the metrics of layouts created from now on, or null to disable. */
+  public static void setListener(@Nullable Listener listener) {
+    GlifLayoutMetrics.listener = listener;
+  }
+
+  @Nullable
+  public static Listener getListener() {
+    return listener;
+  }
+
+  static boolean isEnabled() {
+    return listener != null;
+  }
+
+  private final long startNanos = System.nanoTime();
+  private long templateInflateNanos = -1;
+  private long firstDrawNanos = -1;
+  private int measureCount;
+  private int layoutCount;
+  private int frameCount;
+  private int jankyFrameCount;
+  private boolean frameMetricsAvailable;
+
+  /** Frame deadline before S, where frame metrics do not report it. Resolved once per window. */
+  private long frameDeadlineNanos;
+
+  /** Listener for the first draw, while it is registered with the view tree observer. */
+  @Nullable private ViewTreeObserver.OnPreDrawListener firstDrawListener;
+
+  @Nullable private Window window;
+
+  /** The {@code OnFrameMetricsAvailableListener}. Typed as Object for pre-N class loading. */
+  @Nullable private Object frameMetricsListener;
+
+  GlifLayoutMetrics() {}
+
+  /**
+   * Returns the time it took to inflate the template in milliseconds, or -1 if the template was
+   * inflated by a subclass without going through {@link GlifLayout#onInflateTemplate}.
+   */
+  public long getTemplateInflateMillis() {
+    return templateInflateNanos >= 0 ? TimeUnit.NANOSECONDS.toMillis(templateInflateNanos) : -1;
+  }
+
+  /**
+   * Returns the time from the construction of the layout to its first draw in milliseconds, or -1
+   * if it was not drawn yet. Construction starts with the inflation of the template.
+   */
+  public long getTimeToFirstDrawMillis() {
+    return firstDrawNanos >= 0 ? TimeUnit.NANOSECONDS.toMillis(firstDrawNanos) : -1;
+  }
+
+  /** Returns the number of times the layout was measured before its first draw. */
+  public int getMeasureCount() {
+    return measureCount;
+  }
+
+  /** Returns the number of times the layout was laid out before its first draw. */
+  public int getLayoutCount() {
+    return layoutCount;
+  }
+
+  /** Returns whether frames are counted, see {@link #getFrameCount()}. */
+  public boolean isFrameMetricsAvailable() {
+    return frameMetricsAvailable;
+  }
+
+  /** Returns the number of frames reported for the window while the layout was attached. */
+  public int getFrameCount() {
+    return frameCount;
+  }
+
+  /**
+   * Returns the number of frames which missed their deadline while the layout was attached. The
+   * first frame is not counted, see {@link #getTimeToFirstDrawMillis()} instead.
+   */
+  public int getJankyFrameCount() {
+    return jankyFrameCount;
+  }
+
+  @Override
+  public String toString() {
+    return "GlifLayoutMetrics{templateInflateMs="
+        + getTemplateInflateMillis()
+        + " timeToFirstDrawMs="
+        + getTimeToFirstDrawMillis()
+        + " measures="
+        + measureCount
+        + " layouts="
+        + layoutCount
+        + " frames="
+        + (frameMetricsAvailable ? frameCount : "n/a")
+        + " jankyFrames="
+        + (frameMetricsAvailable ? jankyFrameCount : "n/a")
+        + "}";
+  }
+
+  void onTemplateInflated() {
+    templateInflateNanos = System.nanoTime() - startNanos;
+  }
+
+  void onMeasure() {
+    if (firstDrawNanos < 0) {
+      measureCount++;
+    }
+  }
+
+  void onLayout() {
+    if (firstDrawNanos < 0) {
+      layoutCount++;
+    }
+  }
+
+  void onAttachedToWindow(@NonNull GlifLayout layout) {
+    if (firstDrawNanos < 0 && firstDrawListener == null) {
+      firstDrawListener =
+          new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+              layout.getViewTreeObserver().removeOnPreDrawListener(this);
+              firstDrawListener = null;
+              firstDrawNanos = System.nanoTime() - startNanos;
+              final Listener listener = GlifLayoutMetrics.listener;
+              if (listener != null) {
+                listener.onFirstDraw(layout, GlifLayoutMetrics.this);
+              }
+              return true;
+            }
+          };
+      layout.getViewTreeObserver().addOnPreDrawListener(firstDrawListener);
+    }
+    if (Build.VERSION.SDK_INT >= VERSION_CODES.N) {
+      startFrameMetrics(layout);
+    }
+  }
+
+  void onDetachedFromWindow(@NonNull GlifLayout layout) {
+    if (firstDrawListener != null) {
+      // Detached before the first draw. The listener is added again on the next attach.
+      final ViewTreeObserver observer = layout.getViewTreeObserver();
+      if (observer.isAlive()) {
+        observer.removeOnPreDrawListener(firstDrawListener);
+      }
+      firstDrawListener = null;
+    }
+    if (Build.VERSION.SDK_INT >= VERSION_CODES.N) {
+      stopFrameMetrics();
+    }
+    final Listener listener = GlifLayoutMetrics.listener;
+    if (listener != null) {
+      listener.onDetached(layout, this);
+    }
+  }
+
+  @TargetApi(VERSION_CODES.N)
+  private void startFrameMetrics(GlifLayout layout) {
+    final Activity activity = findActivity(layout.getContext());
+    if (activity == null || frameMetricsListener != null) {
+      return;
+    }
+    if (Build.VERSION.SDK_INT < VERSION_CODES.S) {
+      final Display display = layout.getDisplay();
+      // Assume 60 Hz if the display of the window is not known.
+      final float refreshRate = display != null ? display.getRefreshRate() : 0;
+      frameDeadlineNanos =
+          (long) (TimeUnit.SECONDS.toNanos(1) / (refreshRate > 0 ? refreshRate : 60f));
+    }
+    final Window.OnFrameMetricsAvailableListener metricsListener = this::onFrameMetrics;
+    try {
+      // Counting frames is cheap, so the metrics are delivered on the main thread instead of a
+      // dedicated thread.
+      activity
+          .getWindow()
+          .addOnFrameMetricsAvailableListener(metricsListener, new Handler(Looper.getMainLooper()));
+    } catch (IllegalStateException e) {
+      // The window is not hardware accelerated.
+      Log.w(TAG, "Frame metrics are not available", e);
+      return;
+    }
+    window = activity.getWindow();
+    frameMetricsListener = metricsListener;
+    frameMetricsAvailable = true;
+  }
+
+  @TargetApi(VERSION_CODES.N)
+  private void stopFrameMetrics() {
+    if (window != null && frameMetricsListener != null) {
+      try {
+        window.removeOnFrameMetricsAvailableListener(
+            (Window.OnFrameMetricsAvailableListener) frameMetricsListener);
+      } catch (IllegalArgumentException e) {
+        // The listener was removed already, e.g. along with the window.
+      }
+    }
+    window = null;
+    frameMetricsListener = null;
+  }
+
+  @TargetApi(VERSION_CODES.N)
+  private void onFrameMetrics(Window window, FrameMetrics frameMetrics, int droppedReports) {
+    // Reports dropped by the system are not known to be janky or not, so they are not counted.
+    frameCount++;
+    if (frameMetrics.getMetric(FrameMetrics.FIRST_DRAW_FRAME) == 1) {
+      return;
+    }
+    final long deadlineNanos =
+        Build.VERSION.SDK_INT >= VERSION_CODES.S
+            ? frameMetrics.getMetric(FrameMetrics.DEADLINE)
+            : frameDeadlineNanos;
+    if (frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION) > deadlineNanos) {
+      jankyFrameCount++;
+    }
+  }
+
+  @Nullable
+  private static Activity findActivity(Context context) {
+    while (context instanceof ContextWrapper) {
+      if (context instanceof Activity) {
+        return (Activity) context;
+      }
+      context = ((ContextWrapper) context).getBaseContext();
+    }
+    return null;
+  }
+}
@@ -70,10 +70,6 @@ public class GlifListLayout extends GlifLayout {
     listMixin = new ListMixin(this, attrs, defStyleAttr);
     registerMixin(ListMixin.class, listMixin);
 
-    final RequireScrollMixin requireScrollMixin = getMixin(RequireScrollMixin.class);
-    requireScrollMixin.setScrollHandlingDelegate(
-        new ListViewScrollHandlingDelegate(requireScrollMixin, getListView()));
-
     View view = this.findManagedViewById(R.id.sud_landscape_content_area);
     if (view != null) {
       tryApplyPartnerCustomizationContentPaddingTopStyle(view);
@@ -81,6 +77,12 @@ public class GlifListLayout extends GlifLayout {
     updateLandscapeMiddleHorizontalSpacing();
   }
 
+  @Override
+  protected void onRequireScrollMixinCreated(RequireScrollMixin requireScrollMixin) {
+    requireScrollMixin.setScrollHandlingDelegate(
+        new ListViewScrollHandlingDelegate(requireScrollMixin, getListView()));
+  }
+
   @Override
   protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
     super.onLayout(changed, left, top, right, bottom);
@@ -17,6 +17,7 @@
 package com.google.android.setupdesign;
 
 import android.annotation.SuppressLint;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
@@ -33,6 +34,8 @@ import android.graphics.drawable.Drawable;
 import android.os.Build;
 import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
+import com.google.android.setupdesign.util.MemoryTrimHelper;
+import java.io.PrintWriter;
 import java.lang.ref.SoftReference;
 
 /**
@@ -69,12 +72,54 @@ public class GlifPatternDrawable extends Drawable {
   // Resulting max cache size = (1.5 x 1366, 1.5 x 768) = (2049, 1152)
   private static final float MAX_CACHED_BITMAP_SCALE = 1.5f;
 
+  /** The scale limit of the cached bitmap while the process is critically low on memory. */
+  private static final float LOW_MEMORY_MAX_CACHED_BITMAP_SCALE = 1f;
+
   private static final int NUM_PATHS = 7;
 
   private static SoftReference<Bitmap> bitmapCache;
   private static Path[] patternPaths;
   private static int[] patternLightness;
 
+  private static float maxCachedBitmapScale = MAX_CACHED_BITMAP_SCALE;
+
+  static {
+    MemoryTrimHelper.register(
+        "GlifPatternDrawable",
+        new MemoryTrimHelper.Trimmable() {
+          @Override
+          public void onTrimMemory(int level) {
+            // Drop the cached pattern, it is rendered again the next time a pattern is drawn. While
+            // the UI is shown with critically low memory, keep it no larger than the pattern's view
+            // box. Once the UI is hidden the pattern is rendered at full scale again when shown.
+            if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL
+                && level < ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+              maxCachedBitmapScale = LOW_MEMORY_MAX_CACHED_BITMAP_SCALE;
+            } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+              maxCachedBitmapScale = MAX_CACHED_BITMAP_SCALE;
+            }
+            invalidatePattern();
+          }
+
+          @Override
+          public long getRetainedBytes() {
+            final Bitmap bitmap = bitmapCache != null ? bitmapCache.get() : null;
+            return bitmap != null ? bitmap.getRowBytes() * bitmap.getHeight() : 0;
+          }
+
+          @Override
+          public void dump(@NonNull String prefix, @NonNull PrintWriter writer) {
+            final Bitmap bitmap = bitmapCache != null ? bitmapCache.get() : null;
+            writer.println(
+                prefix
+                    + "bitmap="
+                    + (bitmap != null ? bitmap.getWidth() + "x" + bitmap.getHeight() : "none")
+                    + " maxScale="
+                    + maxCachedBitmapScale);
+          }
+        });
+  }
+
   public static GlifPatternDrawable getDefault(Context context) {
     int colorPrimary = 0;
     if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
@@ -113,10 +158,10 @@ public class GlifPatternDrawable extends Drawable {
       final int bitmapHeight = bitmap.getHeight();
       // Invalidate the cache if this drawable is bigger and we can still create a bigger
       // cache.
-      if (drawableWidth > bitmapWidth && bitmapWidth < VIEWBOX_WIDTH * MAX_CACHED_BITMAP_SCALE) {
+      if (drawableWidth > bitmapWidth && bitmapWidth < VIEWBOX_WIDTH * maxCachedBitmapScale) {
         bitmap = null;
       } else if (drawableHeight > bitmapHeight
-          && bitmapHeight < VIEWBOX_HEIGHT * MAX_CACHED_BITMAP_SCALE) {
+          && bitmapHeight < VIEWBOX_HEIGHT * maxCachedBitmapScale) {
         bitmap = null;
       }
     }
@@ -149,7 +194,7 @@ public class GlifPatternDrawable extends Drawable {
     float scaleX = drawableWidth / VIEWBOX_WIDTH;
     float scaleY = drawableHeight / VIEWBOX_HEIGHT;
     float scale = Math.max(scaleX, scaleY);
-    scale = Math.min(MAX_CACHED_BITMAP_SCALE, scale);
+    scale = Math.min(maxCachedBitmapScale, scale);
 
     int scaledWidth = (int) (VIEWBOX_WIDTH * scale);
     int scaledHeight = (int) (VIEWBOX_HEIGHT * scale);
@@ -71,10 +71,6 @@ public class GlifRecyclerLayout extends GlifLayout {
     recyclerMixin.parseAttributes(attrs, defStyleAttr);
     registerMixin(RecyclerMixin.class, recyclerMixin);
 
-    final RequireScrollMixin requireScrollMixin = getMixin(RequireScrollMixin.class);
-    requireScrollMixin.setScrollHandlingDelegate(
-        new RecyclerViewScrollHandlingDelegate(requireScrollMixin, getRecyclerView()));
-
     View view = this.findManagedViewById(R.id.sud_landscape_content_area);
     if (view != null) {
       tryApplyPartnerCustomizationContentPaddingTopStyle(view);
@@ -82,6 +78,12 @@ public class GlifRecyclerLayout extends GlifLayout {
     updateLandscapeMiddleHorizontalSpacing();
   }
 
+  @Override
+  protected void onRequireScrollMixinCreated(RequireScrollMixin requireScrollMixin) {
+    requireScrollMixin.setScrollHandlingDelegate(
+        new RecyclerViewScrollHandlingDelegate(requireScrollMixin, getRecyclerView()));
+  }
+
   @Override
   protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
     super.onLayout(changed, left, top, right, bottom);
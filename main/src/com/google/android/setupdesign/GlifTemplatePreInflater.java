@@ -0,0 +1,360 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.setupdesign;
+
+import android.app.Activity;
+import android.app.Application;
+import android.app.Application.ActivityLifecycleCallbacks;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.FrameLayout;
+import androidx.annotation.LayoutRes;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.StyleRes;
+import com.google.android.setupcompat.internal.FallbackThemeWrapper;
+import com.google.android.setupdesign.util.MemoryTrimHelper;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Opt-in pool of {@link GlifLayout} templates inflated ahead of time on a background thread, in the
+ * spirit of {@code AsyncLayoutInflater}. For example an activity can call {@link
+ * #preInflate(Context, int)} at the start of {@code onCreate}, before doing other setup work, and
+ * the {@link GlifLayout} created by {@code setContentView} takes the template from the pool instead
+ * of inflating it.
+ *
+ * <p>Templates are inflated with the given context, so they can only be used by layouts created
+ * with the same context, and only while its configuration and theme are the same as when {@link
+ * #preInflate(Context, int)} was called. For example, a template is not used if the activity calls
+ * {@code setTheme} in between. Templates which fail to inflate on the background thread, or which
+ * are not ready when requested, are inflated on the main thread as usual. Templates of an activity
+ * are dropped when it is destroyed.
+ *
+ * <p>Thread-safety contract: the template is inflated with a clone of the {@link LayoutInflater}
+ * of the context, so that views are substituted by its factories like on the main thread, e.g.
+ * with their AppCompat counterparts. The factories are therefore called on the background thread,
+ * and the pool must only be enabled if they are safe to call from there. The views the inflater
+ * creates itself are limited to framework widgets and the views of this library known not to bind
+ * to the looper of the thread constructing them, see {@link #isSafeToPreInflate(Class)}. Templates
+ * with any other view, e.g. {@link com.google.android.setupdesign.view.IntrinsicSizeFrameLayout}
+ * in the card templates of large screens, are inflated on the main thread.
+ *
+ * <p>This is disabled by default, see {@link #setEnabled(boolean)}. All methods must be called from
+ * the main thread.
+ */
+public final class GlifTemplatePreInflater {
+
+  private static final String TAG = "GlifTemplatePreInflater";
+
+  /** Maximum number of templates kept in the pool. Each template holds a full view hierarchy. */
+  private static final int MAX_POOLED_TEMPLATES = 2;
+
+  /**
+   * Framework views which are safe to create off the main thread, the same as those created by
+   * {@code AsyncLayoutInflater}.
+   */
+  private static final String[] SAFE_VIEW_PACKAGES = {"android.widget.", "android.view."};
+
+  /**
+   * Views of the templates which do not post, create handlers or use the partner configs, which are
+   * not thread-safe, in their constructors. This excludes {@link
+   * com.google.android.setupdesign.view.IntrinsicSizeFrameLayout}, which reads partner configs,
+   * {@link com.google.android.setupdesign.view.StickyHeaderListView}, which inflates its header
+   * with the inflater of its context, and {@link
+   * com.google.android.setupdesign.view.IllustrationVideoView}, which creates its player.
+   */
+  private static final Set<String> SAFE_VIEW_CLASSES =
+      new HashSet<>(
+          Arrays.asList(
+              "com.google.android.setupcompat.view.StatusBarBackgroundLayout",
+              "com.google.android.setupdesign.view.BottomScrollView",
+              "com.google.android.setupdesign.view.FillContentLayout",
+              "com.google.android.setupdesign.view.HeaderRecyclerView",
+              "com.google.android.setupdesign.view.RichTextView"));
+
+  private static boolean enabled = false;
+
+  @Nullable private static Handler backgroundHandler;
+
+  private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+  /** Pending and inflated templates, oldest first. Main thread only. */
+  private static final ArrayList<Entry> entries = new ArrayList<>();
+
+  /** Whether {@link #activityLifecycleCallbacks} are registered with the application. */
+  private static boolean lifecycleCallbacksRegistered = false;
+
+  private static final ActivityLifecycleCallbacks activityLifecycleCallbacks =
+      new ActivityLifecycleCallbacks() {
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {}
+
+        @Override
+        public void onActivityStarted(Activity activity) {}
+
+        @Override
+        public void onActivityResumed(Activity activity) {}
+
+        @Override
+        public void onActivityPaused(Activity activity) {}
+
+        @Override
+        public void onActivityStopped(Activity activity) {}
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {}
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+          clear(activity);
+        }
+      };
+
+  static {
+    MemoryTrimHelper.register(
+        "GlifTemplatePreInflater",
+        new MemoryTrimHelper.Trimmable() {
+          @Override
+          public void onTrimMemory(int level) {
+            clear();
+          }
+
+          @Override
+          public long getRetainedBytes() {
+            return MemoryTrimHelper.UNKNOWN_SIZE;
+          }
+
+          @Override
+          public void dump(@NonNull String prefix, @NonNull PrintWriter writer) {
+            writer.println(prefix + "enabled=" + enabled + " templates=" + entries.size());
+          }
+        });
+  }
+
+  private GlifTemplatePreInflater() {}
+
+  /** Enables or disables the pool. Disabling clears the pooled templates. */
+  @MainThread
+  public static void setEnabled(boolean enabled) {
+    GlifTemplatePreInflater.enabled = enabled;
+    if (!enabled) {
+      clear();
+    }
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Starts inflating the given template for a {@link GlifLayout} which will be created with {@code
+   * context}. Use the template resource the layout would use, e.g. {@code
+   * R.layout.sud_glif_template} for a {@link GlifLayout} without {@code android:layout}.
+   */
+  @MainThread
+  public static void preInflate(@NonNull Context context, @LayoutRes int template) {
+    preInflate(context, template, R.style.SudThemeGlif_Light);
+  }
+
+  @MainThread
+  static void preInflate(
+      @NonNull Context context, @LayoutRes int template, @StyleRes int fallbackTheme) {
+    if (!enabled || template == 0) {
+      return;
+    }
+    // Match the template the layout resolves in GlifLayout#onInflateTemplate.
+    final int resolvedTemplate = GlifLayout.getFlattenedTemplate(context, template);
+    removeStaleEntries();
+    registerLifecycleCallbacks(context);
+    while (entries.size() >= MAX_POOLED_TEMPLATES) {
+      entries.remove(0);
+    }
+    final Entry entry = new Entry(context, resolvedTemplate, fallbackTheme);
+    entries.add(entry);
+    // Same as TemplateLayout#inflateTemplate. The theme and the inflater are created here, as the
+    // theme of the context and the factories of its inflater are only read on the main thread.
+    final Context themedContext = new FallbackThemeWrapper(context, fallbackTheme);
+    themedContext.getTheme();
+    final LayoutInflater inflater = LayoutInflater.from(themedContext);
+    final LayoutInflater.Filter callerFilter = inflater.getFilter();
+    inflater.setFilter(
+        viewClass ->
+            isSafeToPreInflate(viewClass)
+                && (callerFilter == null || callerFilter.onLoadClass(viewClass)));
+    getBackgroundHandler()
+        .post(
+            () -> {
+              View view = null;
+              try {
+                // The layout params of the template root are generated by a FrameLayout, as
+                // GlifLayout is one.
+                view =
+                    inflater.inflate(
+                        resolvedTemplate,
+                        new FrameLayout(themedContext),
+                        /* attachToRoot= */ false);
+              } catch (RuntimeException e) {
+                // Expected for templates with views which are not safe to pre-inflate. Actual
+                // errors are thrown again when the layout inflates the template itself.
+                Log.d(TAG, "Template not inflated in the background", e);
+              }
+              final View inflated = view;
+              mainHandler.post(() -> entry.view = inflated);
+            });
+  }
+
+  /**
+   * Returns the pooled template for the given context, template resource and fallback theme, or
+   * null if there is none ready. The returned view is removed from the pool.
+   */
+  @MainThread
+  @Nullable
+  static View take(
+      @NonNull Context context, @LayoutRes int template, @StyleRes int fallbackTheme) {
+    if (entries.isEmpty()) {
+      return null;
+    }
+    final Iterator<Entry> iterator = entries.iterator();
+    while (iterator.hasNext()) {
+      final Entry entry = iterator.next();
+      if (entry.matches(context, template, fallbackTheme)) {
+        // The entry is used up even if it is not inflated yet, in which case the layout inflates
+        // the template itself.
+        iterator.remove();
+        return entry.view;
+      }
+    }
+    return null;
+  }
+
+  /** Drops all pooled templates, including those still being inflated. */
+  @MainThread
+  public static void clear() {
+    entries.clear();
+  }
+
+  /** Drops all pooled templates inflated with the given context. */
+  @MainThread
+  public static void clear(@NonNull Context context) {
+    final Iterator<Entry> iterator = entries.iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().context == context) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /** Returns the number of templates in the pool, including those still being inflated. */
+  @MainThread
+  public static int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns whether views of the given class can be created on the background thread, see the
+   * thread-safety contract of this class.
+   */
+  static boolean isSafeToPreInflate(Class<?> viewClass) {
+    final String name = viewClass.getName();
+    for (String safePackage : SAFE_VIEW_PACKAGES) {
+      if (name.startsWith(safePackage)) {
+        return true;
+      }
+    }
+    return SAFE_VIEW_CLASSES.contains(name);
+  }
+
+  /** Registers the callbacks dropping the templates of destroyed activities, if not already. */
+  private static void registerLifecycleCallbacks(Context context) {
+    if (!lifecycleCallbacksRegistered) {
+      final Context applicationContext = context.getApplicationContext();
+      if (applicationContext instanceof Application) {
+        ((Application) applicationContext)
+            .registerActivityLifecycleCallbacks(activityLifecycleCallbacks);
+        lifecycleCallbacksRegistered = true;
+      }
+    }
+  }
+
+  /** Removes templates of activities which are finishing, as they can no longer be used. */
+  private static void removeStaleEntries() {
+    final Iterator<Entry> iterator = entries.iterator();
+    while (iterator.hasNext()) {
+      final Context context = iterator.next().context;
+      if (context instanceof Activity && ((Activity) context).isFinishing()) {
+        iterator.remove();
+      }
+    }
+  }
+
+  private static Handler getBackgroundHandler() {
+    if (backgroundHandler == null) {
+      final HandlerThread thread =
+          new HandlerThread("SudTemplatePreInflater", Process.THREAD_PRIORITY_BACKGROUND);
+      thread.start();
+      backgroundHandler = new Handler(thread.getLooper());
+    }
+    return backgroundHandler;
+  }
+
+  private static final class Entry {
+    final Context context;
+    final int template;
+    final int fallbackTheme;
+    final Configuration configuration;
+
+    /**
+     * The hash code of the theme of the context. From API 23 it follows the styles applied to the
+     * theme, e.g. by {@code setTheme}. Before, it is the identity of the theme.
+     */
+    final int themeHashCode;
+
+    /** The inflated template, set on the main thread once inflated. */
+    @Nullable View view;
+
+    Entry(Context context, int template, int fallbackTheme) {
+      this.context = context;
+      this.template = template;
+      this.fallbackTheme = fallbackTheme;
+      configuration = new Configuration(context.getResources().getConfiguration());
+      themeHashCode = context.getTheme().hashCode();
+    }
+
+    /** Returns whether the template can be used by a layout with the given parameters. */
+    boolean matches(Context context, int template, int fallbackTheme) {
+      return this.context == context
+          && this.template == template
+          && this.fallbackTheme == fallbackTheme
+          && configuration.equals(context.getResources().getConfiguration())
+          && themeHashCode == context.getTheme().hashCode();
+    }
+  }
+}
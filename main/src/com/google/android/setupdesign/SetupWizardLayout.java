@@ -20,10 +20,14 @@ import android.annotation.SuppressLint;
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.ColorStateList;
+import android.content.res.Configuration;
+import android.content.res.Resources;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Shader.TileMode;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
+import android.graphics.drawable.Drawable.ConstantState;
 import android.graphics.drawable.LayerDrawable;
 import android.os.Build.VERSION;
 import android.os.Build.VERSION_CODES;
@@ -31,6 +35,7 @@ import android.os.Parcel;
 import android.os.Parcelable;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.util.LruCache;
 import android.util.TypedValue;
 import android.view.Gravity;
 import android.view.LayoutInflater;
@@ -38,6 +43,8 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ScrollView;
 import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.google.android.setupcompat.internal.TemplateLayout;
 import com.google.android.setupcompat.template.SystemNavBarMixin;
 import com.google.android.setupdesign.template.DescriptionMixin;
@@ -46,6 +53,7 @@ import com.google.android.setupdesign.template.NavigationBarMixin;
 import com.google.android.setupdesign.template.ProgressBarMixin;
 import com.google.android.setupdesign.template.RequireScrollMixin;
 import com.google.android.setupdesign.template.ScrollViewScrollHandlingDelegate;
+import com.google.android.setupdesign.util.TrimmableLruCache;
 import com.google.android.setupdesign.view.Illustration;
 import com.google.android.setupdesign.view.NavigationBar;
 
@@ -53,6 +61,26 @@ public class SetupWizardLayout extends TemplateLayout {
 
   private static final String TAG = "SetupWizardLayout";
 
+  private static final int DRAWABLE_CACHE_SIZE = 8;
+
+  /**
+   * Constant states of the tiled backgrounds and composed illustrations set by resource ID, so the
+   * screens of a flow share the decoded bitmaps and the tablet illustration is only composed once.
+   * Backgrounds are keyed by their resource ID, and illustrations by the asset ID in the upper 32
+   * bits and the tile ID in the lower 32 bits. Main thread only.
+   */
+  private static final LruCache<Long, ConstantState> drawableStates =
+      new TrimmableLruCache<Long, ConstantState>("SetupWizardLayout", DRAWABLE_CACHE_SIZE) {
+        @Override
+        protected long estimateBytes(@NonNull Long key, @NonNull ConstantState value) {
+          // The bitmaps dominate the size of the cached drawables.
+          return estimateBitmapBytes(value.newDrawable());
+        }
+      };
+
+  /** The configuration {@link #drawableStates} were loaded with. */
+  @Nullable private static Configuration drawableStatesConfiguration;
+
   public SetupWizardLayout(Context context) {
     super(context, 0, 0);
     init(null, R.attr.sudLayoutTheme);
@@ -319,30 +347,51 @@ public class SetupWizardLayout extends TemplateLayout {
    * drawable, use {@link #setLayoutBackground(android.graphics.drawable.Drawable)} instead.
    */
   public void setBackgroundTile(int backgroundTile) {
-    final Drawable backgroundTileDrawable = getContext().getResources().getDrawable(backgroundTile);
-    setBackgroundTile(backgroundTileDrawable);
+    final Resources resources = getContext().getResources();
+    Drawable backgroundTileDrawable = getCachedDrawable(resources, backgroundTile);
+    if (backgroundTileDrawable == null) {
+      backgroundTileDrawable = getBackgroundTile(resources.getDrawable(backgroundTile));
+      putCachedDrawable(backgroundTile, backgroundTileDrawable);
+    }
+    setLayoutBackground(backgroundTileDrawable);
   }
 
   private void setBackgroundTile(Drawable backgroundTile) {
+    setLayoutBackground(getBackgroundTile(backgroundTile));
+  }
+
+  private static Drawable getBackgroundTile(Drawable backgroundTile) {
     if (backgroundTile instanceof BitmapDrawable) {
+      // Mutate so the tile mode is not applied to the drawable's shared constant state.
+      backgroundTile = backgroundTile.mutate();
       ((BitmapDrawable) backgroundTile).setTileModeXY(TileMode.REPEAT, TileMode.REPEAT);
     }
-    setLayoutBackground(backgroundTile);
+    return backgroundTile;
   }
 
   private Drawable getIllustration(int asset, int horizontalTile) {
-    final Context context = getContext();
-    final Drawable assetDrawable = context.getResources().getDrawable(asset);
-    final Drawable tile = context.getResources().getDrawable(horizontalTile);
-    return getIllustration(assetDrawable, tile);
+    final Resources resources = getContext().getResources();
+    final long key = ((long) asset << 32) | (horizontalTile & 0xffffffffL);
+    Drawable illustration = getCachedDrawable(resources, key);
+    if (illustration == null) {
+      final Drawable assetDrawable = resources.getDrawable(asset);
+      final Drawable tile = resources.getDrawable(horizontalTile);
+      illustration = getIllustration(assetDrawable, tile);
+      putCachedDrawable(key, illustration);
+    }
+    return illustration;
   }
 
   @SuppressLint("RtlHardcoded")
   private Drawable getIllustration(Drawable asset, Drawable horizontalTile) {
     final Context context = getContext();
+    // The drawables are mutated so the tile mode, gravity and mirroring are not applied to their
+    // shared constant states.
+    asset = asset.mutate();
     if (context.getResources().getBoolean(R.bool.sudUseTabletLayout)) {
       // If it is a "tablet" (sw600dp), create a LayerDrawable with the horizontal tile.
       if (horizontalTile instanceof BitmapDrawable) {
+        horizontalTile = horizontalTile.mutate();
         ((BitmapDrawable) horizontalTile).setTileModeX(TileMode.REPEAT);
         ((BitmapDrawable) horizontalTile).setGravity(Gravity.TOP);
       }
@@ -364,6 +413,52 @@ public class SetupWizardLayout extends TemplateLayout {
     }
   }
 
+  /**
+   * Returns a new instance of the cached drawable for the given key, sharing the constant state of
+   * the cached drawable, or null if there is none for the current configuration.
+   */
+  @Nullable
+  private static Drawable getCachedDrawable(Resources resources, long key) {
+    final Configuration configuration = resources.getConfiguration();
+    if (drawableStatesConfiguration == null
+        || drawableStatesConfiguration.diff(configuration) != 0) {
+      drawableStates.evictAll();
+      drawableStatesConfiguration = new Configuration(configuration);
+      return null;
+    }
+    final ConstantState state = drawableStates.get(key);
+    return state != null ? state.newDrawable(resources) : null;
+  }
+
+  private static void putCachedDrawable(long key, Drawable drawable) {
+    final ConstantState state = drawable.getConstantState();
+    if (state != null) {
+      drawableStates.put(key, state);
+    }
+  }
+
+  /** Drops the cached backgrounds and illustrations, e.g. when the app is low on memory. */
+  public static void clearDrawableCache() {
+    drawableStates.evictAll();
+    drawableStatesConfiguration = null;
+  }
+
+  private static long estimateBitmapBytes(Drawable drawable) {
+    if (drawable instanceof BitmapDrawable) {
+      final Bitmap bitmap = ((BitmapDrawable) drawable).getBitmap();
+      return bitmap != null ? bitmap.getRowBytes() * bitmap.getHeight() : 0;
+    }
+    if (drawable instanceof LayerDrawable) {
+      final LayerDrawable layers = (LayerDrawable) drawable;
+      long bytes = 0;
+      for (int i = 0; i < layers.getNumberOfLayers(); i++) {
+        bytes += estimateBitmapBytes(layers.getDrawable(i));
+      }
+      return bytes;
+    }
+    return 0;
+  }
+
   public boolean isProgressBarShown() {
     return getMixin(ProgressBarMixin.class).isShown();
   }
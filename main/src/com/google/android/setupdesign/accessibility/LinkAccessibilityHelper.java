@@ -20,6 +20,8 @@ import android.graphics.Rect;
 import android.os.Build;
 import android.os.Bundle;
 import android.text.Layout;
+import android.text.SpanWatcher;
+import android.text.Spannable;
 import android.text.Spanned;
 import android.text.style.ClickableSpan;
 import android.util.Log;
@@ -29,11 +31,14 @@ import android.view.ViewGroup;
 import android.view.accessibility.AccessibilityEvent;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.core.view.AccessibilityDelegateCompat;
 import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
 import androidx.core.view.accessibility.AccessibilityNodeProviderCompat;
 import androidx.customview.widget.ExploreByTouchHelper;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -147,22 +152,50 @@ public class LinkAccessibilityHelper extends AccessibilityDelegateCompat {
 
     private final Rect tempRect = new Rect();
     private final TextView view;
+    @Nullable private SpanIndex spanIndex;
+
+    /**
+     * Invalidates the span index when a {@link ClickableSpan} is added to, removed from or moved
+     * within the indexed text, which is attached to the text if it is {@link Spannable}.
+     */
+    private final SpanWatcher spanWatcher =
+        new SpanWatcher() {
+          @Override
+          public void onSpanAdded(Spannable text, Object what, int start, int end) {
+            onSpanModified(text, what);
+          }
+
+          @Override
+          public void onSpanRemoved(Spannable text, Object what, int start, int end) {
+            onSpanModified(text, what);
+          }
+
+          @Override
+          public void onSpanChanged(
+              Spannable text, Object what, int ostart, int oend, int nstart, int nend) {
+            onSpanModified(text, what);
+          }
+        };
 
     PreOLinkAccessibilityHelper(TextView view) {
       super(view);
       this.view = view;
     }
 
+    private void onSpanModified(Spannable text, Object what) {
+      if (what instanceof ClickableSpan && spanIndex != null && spanIndex.text == text) {
+        spanIndex = null;
+      }
+    }
+
     @Override
     protected int getVirtualViewAt(float x, float y) {
-      final CharSequence text = view.getText();
-      if (text instanceof Spanned) {
-        final Spanned spannedText = (Spanned) text;
+      final SpanIndex index = getSpanIndex();
+      if (index != null) {
         final int offset = getOffsetForPosition(view, x, y);
-        ClickableSpan[] linkSpans = spannedText.getSpans(offset, offset, ClickableSpan.class);
-        if (linkSpans.length == 1) {
-          ClickableSpan linkSpan = linkSpans[0];
-          return spannedText.getSpanStart(linkSpan);
+        final int i = index.indexOfSpanAt(offset);
+        if (i >= 0) {
+          return index.starts[i];
         }
       }
       return ExploreByTouchHelper.INVALID_ID;
@@ -170,13 +203,10 @@ public class LinkAccessibilityHelper extends AccessibilityDelegateCompat {
 
     @Override
     protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
-      final CharSequence text = view.getText();
-      if (text instanceof Spanned) {
-        final Spanned spannedText = (Spanned) text;
-        ClickableSpan[] linkSpans =
-            spannedText.getSpans(0, spannedText.length(), ClickableSpan.class);
-        for (ClickableSpan span : linkSpans) {
-          virtualViewIds.add(spannedText.getSpanStart(span));
+      final SpanIndex index = getSpanIndex();
+      if (index != null) {
+        for (int start : index.starts) {
+          virtualViewIds.add(start);
         }
       }
     }
@@ -204,7 +234,7 @@ public class LinkAccessibilityHelper extends AccessibilityDelegateCompat {
       }
       info.setFocusable(true);
       info.setClickable(true);
-      getBoundsForSpan(span, tempRect);
+      getCachedBoundsForSpan(span, tempRect);
       if (tempRect.isEmpty()) {
         Log.e(TAG, "LinkSpan bounds is empty for: " + virtualViewId);
         tempRect.set(0, 0, 1, 1);
@@ -229,17 +259,77 @@ public class LinkAccessibilityHelper extends AccessibilityDelegateCompat {
     }
 
     private ClickableSpan getSpanForOffset(int offset) {
-      CharSequence text = view.getText();
-      if (text instanceof Spanned) {
-        Spanned spannedText = (Spanned) text;
-        ClickableSpan[] spans = spannedText.getSpans(offset, offset, ClickableSpan.class);
-        if (spans.length == 1) {
-          return spans[0];
+      final SpanIndex index = getSpanIndex();
+      if (index != null) {
+        final int i = index.indexOfSpanAt(offset);
+        if (i >= 0) {
+          return index.spans[i];
         }
       }
       return null;
     }
 
+    /**
+     * Returns the span index of the current text, rebuilding it if the text or its clickable spans
+     * have changed, or null if the text is not {@link Spanned}.
+     */
+    @Nullable
+    @VisibleForTesting
+    SpanIndex getSpanIndex() {
+      final CharSequence text = view.getText();
+      if (spanIndex != null && spanIndex.text == text) {
+        return spanIndex;
+      }
+      if (spanIndex != null && spanIndex.text instanceof Spannable) {
+        ((Spannable) spanIndex.text).removeSpan(spanWatcher);
+      }
+      if (!(text instanceof Spanned)) {
+        spanIndex = null;
+        return null;
+      }
+      if (text instanceof Spannable) {
+        final Spannable spannable = (Spannable) text;
+        if (spannable.getSpanStart(spanWatcher) < 0) {
+          spannable.setSpan(spanWatcher, 0, spannable.length(), Spanned.SPAN_INCLUSIVE_INCLUSIVE);
+        }
+      }
+      spanIndex = new SpanIndex((Spanned) text);
+      return spanIndex;
+    }
+
+    /**
+     * Gets the bounds of a span from the span index, computing them at most once per layout of the
+     * text view. The width of the view is part of the key, since a single line text keeps the same
+     * {@link android.text.BoringLayout} instance when it is laid out again at a different width.
+     */
+    private void getCachedBoundsForSpan(@Nullable ClickableSpan span, Rect outRect) {
+      final SpanIndex index = getSpanIndex();
+      final int i = (index != null && span != null) ? index.indexOf(span) : -1;
+      if (i < 0) {
+        getBoundsForSpan(span, outRect);
+        return;
+      }
+      final Layout layout = view.getLayout();
+      final int width = view.getWidth();
+      final int paddingLeft = view.getTotalPaddingLeft();
+      final int paddingTop = view.getTotalPaddingTop();
+      if (index.boundsLayout != layout
+          || index.boundsWidth != width
+          || index.boundsPaddingLeft != paddingLeft
+          || index.boundsPaddingTop != paddingTop) {
+        // The text has been laid out again, invalidate all cached bounds.
+        Arrays.fill(index.bounds, null);
+        index.boundsLayout = layout;
+        index.boundsWidth = width;
+        index.boundsPaddingLeft = paddingLeft;
+        index.boundsPaddingTop = paddingTop;
+      }
+      if (index.bounds[i] == null) {
+        index.bounds[i] = new Rect(getBoundsForSpan(span, outRect));
+      }
+      outRect.set(index.bounds[i]);
+    }
+
     private CharSequence getTextForSpan(ClickableSpan span) {
       CharSequence text = view.getText();
       if (text instanceof Spanned) {
@@ -322,5 +412,101 @@ public class LinkAccessibilityHelper extends AccessibilityDelegateCompat {
       x = convertToLocalHorizontalCoordinate(view, x);
       return view.getLayout().getOffsetForHorizontal(line, x);
     }
+
+    /**
+     * An index of the {@link ClickableSpan}s in a text, sorted by start offset, so that the span at
+     * a given offset can be found with a binary search instead of querying all spans of the text.
+     */
+    @VisibleForTesting
+    static final class SpanIndex {
+      final Spanned text;
+      final ClickableSpan[] spans;
+      final int[] starts;
+      final int[] ends;
+
+      /** The maximum end offset of {@code spans[0..i]}, used to bound the search. */
+      private final int[] maxEnds;
+
+      /** Cached bounds of each span, valid for {@link #boundsLayout}, view width and padding. */
+      final Rect[] bounds;
+
+      @Nullable Layout boundsLayout;
+      int boundsWidth;
+      int boundsPaddingLeft;
+      int boundsPaddingTop;
+
+      SpanIndex(Spanned text) {
+        this.text = text;
+        spans = text.getSpans(0, text.length(), ClickableSpan.class);
+        Arrays.sort(
+            spans,
+            new Comparator<ClickableSpan>() {
+              @Override
+              public int compare(ClickableSpan a, ClickableSpan b) {
+                return text.getSpanStart(a) - text.getSpanStart(b);
+              }
+            });
+        starts = new int[spans.length];
+        ends = new int[spans.length];
+        maxEnds = new int[spans.length];
+        bounds = new Rect[spans.length];
+        int maxEnd = -1;
+        for (int i = 0; i < spans.length; i++) {
+          starts[i] = text.getSpanStart(spans[i]);
+          ends[i] = text.getSpanEnd(spans[i]);
+          maxEnd = Math.max(maxEnd, ends[i]);
+          maxEnds[i] = maxEnd;
+        }
+      }
+
+      /**
+       * Returns the index of the only span covering {@code offset} (boundaries inclusive, the same
+       * as {@link Spanned#getSpans(int, int, Class)} with an empty range), or -1 if there is no
+       * such span or more than one.
+       */
+      int indexOfSpanAt(int offset) {
+        // Find the last span starting at or before the offset.
+        int low = 0;
+        int high = starts.length - 1;
+        int last = -1;
+        while (low <= high) {
+          final int mid = (low + high) >>> 1;
+          if (starts[mid] <= offset) {
+            last = mid;
+            low = mid + 1;
+          } else {
+            high = mid - 1;
+          }
+        }
+        int found = -1;
+        for (int i = last; i >= 0 && maxEnds[i] >= offset; i--) {
+          if (ends[i] >= offset) {
+            if (found >= 0) {
+              return -1;
+            }
+            found = i;
+          }
+        }
+        return found;
+      }
+
+      int indexOf(ClickableSpan span) {
+        final int start = text.getSpanStart(span);
+        int i = Arrays.binarySearch(starts, start);
+        if (i < 0) {
+          return -1;
+        }
+        // Several spans may start at the same offset.
+        while (i > 0 && starts[i - 1] == start) {
+          i--;
+        }
+        for (; i < starts.length && starts[i] == start; i++) {
+          if (spans[i] == span) {
+            return i;
+          }
+        }
+        return -1;
+      }
+    }
   }
 }
@@ -29,9 +29,11 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 import androidx.annotation.ColorInt;
 import androidx.annotation.Nullable;
+import com.google.android.setupcompat.partnerconfig.PartnerConfigHelper;
 import com.google.android.setupdesign.R;
 import com.google.android.setupdesign.util.ItemStyler;
 import com.google.android.setupdesign.util.LayoutStyler;
+import com.google.android.setupdesign.util.PartnerStyleHelper;
 
 /**
  * Definition of an item in an {@link ItemHierarchy}. An item is usually defined in XML and inflated
@@ -167,6 +169,14 @@ public class Item extends AbstractItem {
     }
   }
 
+  /**
+   * Sets the visibility without notifying observers. The caller is responsible for notifying the
+   * resulting change, see {@link ItemGroup#filterItems(ItemGroup.ItemFilter)}.
+   */
+  void setVisibleWithoutNotify(boolean visible) {
+    this.visible = visible;
+  }
+
   public boolean isVisible() {
     return visible;
   }
@@ -178,10 +188,11 @@ public class Item extends AbstractItem {
 
   @Override
   public void onBindView(View view) {
-    TextView label = (TextView) view.findViewById(R.id.sud_items_title);
+    final ViewCache viewCache = ViewCache.get(view);
+    TextView label = viewCache.title;
     label.setText(getTitle());
 
-    TextView summaryView = (TextView) view.findViewById(R.id.sud_items_summary);
+    TextView summaryView = viewCache.summary;
     CharSequence summary = getSummary();
     if (summary != null && summary.length() > 0) {
       summaryView.setText(summary);
@@ -192,10 +203,10 @@ public class Item extends AbstractItem {
 
     view.setContentDescription(getContentDescription());
 
-    final View iconContainer = view.findViewById(R.id.sud_items_icon_container);
+    final View iconContainer = viewCache.iconContainer;
     final Drawable icon = getIcon();
     if (icon != null) {
-      final ImageView iconView = (ImageView) view.findViewById(R.id.sud_items_icon);
+      final ImageView iconView = viewCache.icon;
       // Set the image drawable to null before setting the state and level to avoid affecting
       // any recycled drawable in the ImageView
       iconView.setImageDrawable(null);
@@ -223,10 +234,25 @@ public class Item extends AbstractItem {
     // If the item view is a header layout, it doesn't need to adjust the layout padding start/end
     // here. It will be adjusted by HeaderMixin.
     // TODO: Add partner resource enable check
-    if (!(this instanceof ExpandableSwitchItem) && view.getId() != R.id.sud_layout_header) {
+    final boolean applyLayoutPadding =
+        !(this instanceof ExpandableSwitchItem) && view.getId() != R.id.sud_layout_header;
+    final Object partnerSnapshot = PartnerConfigHelper.get(view.getContext());
+    if (viewCache.isStyled(partnerSnapshot, applyLayoutPadding)) {
+      // The partner styles are already applied to this view, only the parts depending on the
+      // bound content need to be updated.
+      if (viewCache.heavyTheme) {
+        ItemStyler.applyPartnerCustomizationItemGravity(view, summaryView);
+      }
+      return;
+    }
+    if (applyLayoutPadding) {
       LayoutStyler.applyPartnerCustomizationLayoutPaddingStyle(view);
     }
     ItemStyler.applyPartnerCustomizationItemStyle(view);
+    viewCache.setStyled(
+        partnerSnapshot,
+        applyLayoutPadding,
+        PartnerStyleHelper.shouldApplyPartnerHeavyThemeResource(view));
   }
 
   /**
@@ -238,4 +264,54 @@ public class Item extends AbstractItem {
     iconView.setImageState(icon.getState(), false /* merge */);
     iconView.setImageLevel(icon.getLevel());
   }
+
+  /**
+   * The child views of an item view, cached on the view so that rebinding a recycled view does not
+   * need to look them up again. Also remembers the partner config the view was styled with, so
+   * that the partner styles are not resolved and applied again on every bind.
+   *
+   * <p>{@link ItemViewHolder} creates the cache along with the view holder, so that {@link
+   * RecyclerItemAdapter} looks up the child views when it creates a view rather than on its first
+   * bind. For the views of {@link ItemAdapter}, which has no view holder, the cache is created on
+   * the first bind. Either way the cache is stored as a tag of the view, since {@link
+   * #onBindView(View)} only receives the view.
+   */
+  static final class ViewCache {
+    final TextView title;
+    final TextView summary;
+    final View iconContainer;
+    final ImageView icon;
+
+    @Nullable private Object styledPartnerSnapshot;
+    private boolean styledWithLayoutPadding;
+    private boolean heavyTheme;
+
+    private ViewCache(View view) {
+      title = (TextView) view.findViewById(R.id.sud_items_title);
+      summary = (TextView) view.findViewById(R.id.sud_items_summary);
+      iconContainer = view.findViewById(R.id.sud_items_icon_container);
+      icon = (ImageView) view.findViewById(R.id.sud_items_icon);
+    }
+
+    /** Returns the cache of the given item view, creating it if the view has none yet. */
+    static ViewCache get(View view) {
+      Object tag = view.getTag(R.id.sud_items_view_cache);
+      if (!(tag instanceof ViewCache)) {
+        tag = new ViewCache(view);
+        view.setTag(R.id.sud_items_view_cache, tag);
+      }
+      return (ViewCache) tag;
+    }
+
+    boolean isStyled(Object partnerSnapshot, boolean withLayoutPadding) {
+      return styledPartnerSnapshot == partnerSnapshot
+          && styledWithLayoutPadding == withLayoutPadding;
+    }
+
+    void setStyled(Object partnerSnapshot, boolean withLayoutPadding, boolean heavyTheme) {
+      styledPartnerSnapshot = partnerSnapshot;
+      styledWithLayoutPadding = withLayoutPadding;
+      this.heavyTheme = heavyTheme;
+    }
+  }
 }
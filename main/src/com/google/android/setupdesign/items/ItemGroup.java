@@ -30,6 +30,13 @@ public class ItemGroup extends AbstractItemHierarchy
 
   private static final String TAG = "ItemGroup";
 
+  /** Decides which items are visible, see {@link #filterItems(ItemFilter)}. */
+  public interface ItemFilter {
+
+    /** Returns whether the given item should be visible. */
+    boolean isVisible(Item item);
+  }
+
   /**
    * Binary search for the closest value that's smaller than or equal to {@code value}, and return
    * the corresponding key.
@@ -258,6 +265,84 @@ public class ItemGroup extends AbstractItemHierarchy
     }
   }
 
+  /**
+   * Sets the visibility of all {@link Item}s in this group, including those in nested groups, as
+   * decided by {@code filter}. This is equivalent to calling {@link Item#setVisible(boolean)} on
+   * each item, but consecutive visibility changes are notified as a single range change, so that
+   * filtering a large group, e.g. for search-as-you-type, does not rebuild the position index of
+   * every ancestor group once per item.
+   *
+   * <p>Unlike {@link Item#setVisible(boolean)}, the visibility of each item is set directly, so
+   * overrides of {@code setVisible} are not called. The changes are notified to the observers of
+   * the groups only; observers registered on an individual item are not notified.
+   */
+  public void filterItems(ItemFilter filter) {
+    // Position of the next child in the current state, which is the filtered state for the
+    // children already visited and the original state for the rest.
+    int position = 0;
+    int pendingStart = -1;
+    int pendingCount = 0;
+    boolean pendingRemoval = false;
+
+    for (ItemHierarchy child : children) {
+      if (!(child instanceof Item)) {
+        // Flush first so that the positions seen by notifications from the child are consistent.
+        if (pendingCount > 0) {
+          notifyFilterRange(pendingRemoval, pendingStart, pendingCount);
+          pendingCount = 0;
+        }
+        if (child instanceof ItemGroup) {
+          ((ItemGroup) child).filterItems(filter);
+        }
+        position += child.getCount();
+        continue;
+      }
+
+      final Item item = (Item) child;
+      final boolean visible = filter.isVisible(item);
+      if (item.isVisible() == visible) {
+        if (pendingCount > 0) {
+          notifyFilterRange(pendingRemoval, pendingStart, pendingCount);
+          pendingCount = 0;
+        }
+        position += item.getCount();
+        continue;
+      }
+
+      final int oldCount = item.getCount();
+      item.setVisibleWithoutNotify(visible);
+      final int newCount = item.getCount();
+      final boolean removal = !visible;
+      if (pendingCount > 0 && pendingRemoval != removal) {
+        notifyFilterRange(pendingRemoval, pendingStart, pendingCount);
+        pendingCount = 0;
+      }
+      if (pendingCount == 0) {
+        pendingStart = position;
+        pendingRemoval = removal;
+      }
+      if (removal) {
+        // Removed items collapse, the next child takes their position.
+        pendingCount += oldCount;
+      } else {
+        pendingCount += newCount;
+        position += newCount;
+      }
+    }
+    if (pendingCount > 0) {
+      notifyFilterRange(pendingRemoval, pendingStart, pendingCount);
+    }
+  }
+
+  private void notifyFilterRange(boolean removal, int positionStart, int itemCount) {
+    dirty = true;
+    if (removal) {
+      notifyItemRangeRemoved(positionStart, itemCount);
+    } else {
+      notifyItemRangeInserted(positionStart, itemCount);
+    }
+  }
+
   @Override
   public ItemHierarchy findItemById(int id) {
     if (id == getId()) {
@@ -32,6 +32,9 @@ public class ItemViewHolder extends RecyclerView.ViewHolder
 
   ItemViewHolder(View itemView) {
     super(itemView);
+    // Looks up the child views of the item layout along with the view holder, rather than on the
+    // first bind. The cache lives as long as the view, see Item.ViewCache.
+    Item.ViewCache.get(itemView);
   }
 
   @Override
@@ -32,7 +32,9 @@ import com.google.android.setupcompat.internal.TemplateLayout;
 import com.google.android.setupcompat.template.Mixin;
 import com.google.android.setupdesign.R;
 import com.google.android.setupdesign.util.HeaderAreaStyler;
+import com.google.android.setupdesign.util.LayoutPartnerConfigs;
 import com.google.android.setupdesign.util.PartnerStyleHelper;
+import com.google.android.setupdesign.util.PrecomputedTextHelper;
 
 /**
  * A {@link com.google.android.setupcompat.template.Mixin} for setting and getting the description
@@ -43,6 +45,12 @@ public class DescriptionMixin implements Mixin {
   private static final String TAG = "DescriptionMixin";
   private final TemplateLayout templateLayout;
 
+  /**
+   * The latest {@link #setText(CharSequence)} request which makes the description visible once its
+   * text is set, or null if there is none or it was overridden by {@link #setVisibility(int)}.
+   */
+  @Nullable private Object pendingVisibilityRequest;
+
   /**
    * A {@link com.google.android.setupcompat.template.Mixin} for setting and getting the
    * description.
@@ -81,8 +89,19 @@ public class DescriptionMixin implements Mixin {
    * background. It will apply all partner customizations.
    */
   public void tryApplyPartnerCustomizationStyle() {
+    tryApplyPartnerCustomizationStyle(
+        new LayoutPartnerConfigs(
+            templateLayout.getContext(),
+            PartnerStyleHelper.shouldApplyPartnerResource(templateLayout)));
+  }
+
+  /**
+   * Same as {@link #tryApplyPartnerCustomizationStyle()}, using the partner configs already
+   * resolved for the layout.
+   */
+  public void tryApplyPartnerCustomizationStyle(LayoutPartnerConfigs partnerConfigs) {
     TextView description = templateLayout.findManagedViewById(R.id.sud_layout_subtitle);
-    if (description != null && PartnerStyleHelper.shouldApplyPartnerResource(templateLayout)) {
+    if (description != null && partnerConfigs.shouldApplyPartnerResource()) {
       HeaderAreaStyler.applyPartnerCustomizationDescriptionHeavyStyle(description);
     }
   }
@@ -101,8 +120,7 @@ public class DescriptionMixin implements Mixin {
   public void setText(@StringRes int title) {
     final TextView titleView = getTextView();
     if (titleView != null && title != 0) {
-      titleView.setText(title);
-      setVisibility(View.VISIBLE);
+      setText(titleView.getContext().getText(title));
     } else {
       Log.w(TAG, "Fail to set text due to either invalid resource id or text view not found.");
     }
@@ -110,26 +128,49 @@ public class DescriptionMixin implements Mixin {
 
   /**
    * Sets the description text and also sets the text visibility to visible. This can also be set
-   * via the XML attribute {@code app:sudDescriptionText}.
+   * via the XML attribute {@code app:sudDescriptionText}. If {@link PrecomputedTextHelper} is
+   * enabled, the text is measured off the main thread, and set and made visible when ready. It is
+   * not made visible if the visibility was changed in the meantime, either with {@link
+   * #setVisibility(int)} or on the text view directly.
    *
    * @param title The text to be set as description
    */
   public void setText(CharSequence title) {
     final TextView titleView = getTextView();
     if (titleView != null) {
-      titleView.setText(title);
-      setVisibility(View.VISIBLE);
+      final Object request = new Object();
+      final int requestVisibility = titleView.getVisibility();
+      pendingVisibilityRequest = request;
+      PrecomputedTextHelper.setText(
+          titleView,
+          title,
+          () -> {
+            if (pendingVisibilityRequest != request) {
+              return;
+            }
+            pendingVisibilityRequest = null;
+            if (titleView.getVisibility() == requestVisibility) {
+              setVisibility(View.VISIBLE);
+            }
+          });
     }
   }
 
-  /** Returns the current description text. */
+  /**
+   * Returns the current description text. If {@link PrecomputedTextHelper} is still measuring the
+   * text most recently set, returns that text.
+   */
   public CharSequence getText() {
     final TextView titleView = getTextView();
-    return titleView != null ? titleView.getText() : null;
+    return titleView != null ? PrecomputedTextHelper.getText(titleView) : null;
   }
 
-  /** Sets the visibility of description text */
+  /**
+   * Sets the visibility of description text. This overrides the visibility set by a pending {@link
+   * #setText(CharSequence)}.
+   */
   public void setVisibility(int visibility) {
+    pendingVisibilityRequest = null;
     final TextView titleView = getTextView();
     if (titleView != null) {
       titleView.setVisibility(visibility);
@@ -20,13 +20,16 @@ import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.TypedArray;
 import android.os.Build;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.util.LruCache;
 import android.util.TypedValue;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewParent;
-import android.view.ViewTreeObserver;
 import android.widget.FrameLayout;
 import android.widget.TextView;
 import androidx.annotation.AttrRes;
@@ -39,8 +42,11 @@ import com.google.android.setupcompat.partnerconfig.PartnerConfigHelper;
 import com.google.android.setupcompat.template.Mixin;
 import com.google.android.setupdesign.R;
 import com.google.android.setupdesign.util.HeaderAreaStyler;
+import com.google.android.setupdesign.util.LayoutPartnerConfigs;
 import com.google.android.setupdesign.util.LayoutStyler;
 import com.google.android.setupdesign.util.PartnerStyleHelper;
+import com.google.android.setupdesign.util.PrecomputedTextHelper;
+import com.google.android.setupdesign.util.TrimmableLruCache;
 
 /**
  * A {@link com.google.android.setupcompat.template.Mixin} for setting and getting the header text.
@@ -54,6 +60,17 @@ public class HeaderMixin implements Mixin {
   private float headerAutoSizeLineExtraSpacingInPx;
   private int headerAutoSizeMaxLineOfMaxSize;
   private static final int AUTO_SIZE_DEFAULT_MAX_LINES = 6;
+  private static final int AUTO_SIZE_CACHE_SIZE = 16;
+
+  /** Resolved auto text sizes keyed by text, available width, font scale and size configs. */
+  private static final LruCache<String, Float> autoTextSizeCache =
+      new TrimmableLruCache<String, Float>("HeaderMixin", AUTO_SIZE_CACHE_SIZE) {
+        @Override
+        protected long estimateBytes(@NonNull String key, @NonNull Float value) {
+          // The key characters and the boxed size.
+          return key.length() * 2L + 16;
+        }
+      };
 
   /**
    * A {@link com.google.android.setupcompat.template.Mixin} for setting and getting the Header.
@@ -78,7 +95,7 @@ public class HeaderMixin implements Mixin {
     a.recycle();
 
     // Try to update the flag of the uto size config settings
-    tryUpdateAutoTextSizeFlagWithPartnerConfig();
+    tryUpdateAutoTextSizeFlagWithPartnerConfig(newPartnerConfigs());
 
     // Set the header text
     if (headerText != null) {
@@ -90,15 +107,19 @@ public class HeaderMixin implements Mixin {
     }
   }
 
-  private void tryUpdateAutoTextSizeFlagWithPartnerConfig() {
+  private LayoutPartnerConfigs newPartnerConfigs() {
+    return new LayoutPartnerConfigs(
+        templateLayout.getContext(), PartnerStyleHelper.shouldApplyPartnerResource(templateLayout));
+  }
+
+  private void tryUpdateAutoTextSizeFlagWithPartnerConfig(LayoutPartnerConfigs partnerConfigs) {
     Context context = templateLayout.getContext();
-    if (!PartnerStyleHelper.shouldApplyPartnerResource(templateLayout)) {
+    if (!partnerConfigs.shouldApplyPartnerResource()) {
       autoTextSizeEnabled = false;
       return;
     }
     // overridden by partner resource
-    if (PartnerConfigHelper.get(context)
-        .isPartnerConfigAvailable(PartnerConfig.CONFIG_HEADER_AUTO_SIZE_ENABLED)) {
+    if (partnerConfigs.isPartnerConfigAvailable(PartnerConfig.CONFIG_HEADER_AUTO_SIZE_ENABLED)) {
       autoTextSizeEnabled =
           PartnerConfigHelper.get(context)
               .getBoolean(
@@ -109,26 +130,23 @@ public class HeaderMixin implements Mixin {
       return;
     }
 
-    if (PartnerConfigHelper.get(context)
-        .isPartnerConfigAvailable(PartnerConfig.CONFIG_HEADER_AUTO_SIZE_MAX_TEXT_SIZE)) {
+    if (partnerConfigs.isPartnerConfigAvailable(
+        PartnerConfig.CONFIG_HEADER_AUTO_SIZE_MAX_TEXT_SIZE)) {
       headerAutoSizeMaxTextSizeInPx =
-          PartnerConfigHelper.get(context)
-              .getDimension(context, PartnerConfig.CONFIG_HEADER_AUTO_SIZE_MAX_TEXT_SIZE);
+          partnerConfigs.getDimension(PartnerConfig.CONFIG_HEADER_AUTO_SIZE_MAX_TEXT_SIZE);
     }
-    if (PartnerConfigHelper.get(context)
-        .isPartnerConfigAvailable(PartnerConfig.CONFIG_HEADER_AUTO_SIZE_MIN_TEXT_SIZE)) {
+    if (partnerConfigs.isPartnerConfigAvailable(
+        PartnerConfig.CONFIG_HEADER_AUTO_SIZE_MIN_TEXT_SIZE)) {
       headerAutoSizeMinTextSizeInPx =
-          PartnerConfigHelper.get(context)
-              .getDimension(context, PartnerConfig.CONFIG_HEADER_AUTO_SIZE_MIN_TEXT_SIZE);
+          partnerConfigs.getDimension(PartnerConfig.CONFIG_HEADER_AUTO_SIZE_MIN_TEXT_SIZE);
     }
-    if (PartnerConfigHelper.get(context)
-        .isPartnerConfigAvailable(PartnerConfig.CONFIG_HEADER_AUTO_SIZE_LINE_SPACING_EXTRA)) {
+    if (partnerConfigs.isPartnerConfigAvailable(
+        PartnerConfig.CONFIG_HEADER_AUTO_SIZE_LINE_SPACING_EXTRA)) {
       headerAutoSizeLineExtraSpacingInPx =
-          PartnerConfigHelper.get(context)
-              .getDimension(context, PartnerConfig.CONFIG_HEADER_AUTO_SIZE_LINE_SPACING_EXTRA);
+          partnerConfigs.getDimension(PartnerConfig.CONFIG_HEADER_AUTO_SIZE_LINE_SPACING_EXTRA);
     }
-    if (PartnerConfigHelper.get(context)
-        .isPartnerConfigAvailable(PartnerConfig.CONFIG_HEADER_AUTO_SIZE_MAX_LINE_OF_MAX_SIZE)) {
+    if (partnerConfigs.isPartnerConfigAvailable(
+        PartnerConfig.CONFIG_HEADER_AUTO_SIZE_MAX_LINE_OF_MAX_SIZE)) {
       headerAutoSizeMaxLineOfMaxSize =
           PartnerConfigHelper.get(context)
               .getInteger(context, PartnerConfig.CONFIG_HEADER_AUTO_SIZE_MAX_LINE_OF_MAX_SIZE, 0);
@@ -148,15 +166,24 @@ public class HeaderMixin implements Mixin {
    * style will be applied.
    */
   public void tryApplyPartnerCustomizationStyle() {
+    tryApplyPartnerCustomizationStyle(newPartnerConfigs());
+  }
+
+  /**
+   * Same as {@link #tryApplyPartnerCustomizationStyle()}, using the partner configs already
+   * resolved for the layout.
+   */
+  public void tryApplyPartnerCustomizationStyle(LayoutPartnerConfigs partnerConfigs) {
     TextView header = templateLayout.findManagedViewById(R.id.suc_layout_title);
-    if (PartnerStyleHelper.shouldApplyPartnerResource(templateLayout)) {
+    if (partnerConfigs.shouldApplyPartnerResource()) {
       View headerAreaView = templateLayout.findManagedViewById(R.id.sud_layout_header);
-      LayoutStyler.applyPartnerCustomizationExtraPaddingStyle(headerAreaView);
+      LayoutStyler.applyPartnerCustomizationExtraPaddingStyle(headerAreaView, partnerConfigs);
       //HeaderAreaStyler.applyPartnerCustomizationHeaderStyle(header);
-      HeaderAreaStyler.applyPartnerCustomizationHeaderAreaStyle((ViewGroup) headerAreaView);
+      HeaderAreaStyler.applyPartnerCustomizationHeaderAreaStyle(
+          (ViewGroup) headerAreaView, partnerConfigs);
     }
     // Try to update the flag of the uto size config settings
-    tryUpdateAutoTextSizeFlagWithPartnerConfig();
+    tryUpdateAutoTextSizeFlagWithPartnerConfig(partnerConfigs);
     if (autoTextSizeEnabled) {
       // Override the text size setting of the header
       autoAdjustTextSize(header);
@@ -186,16 +213,14 @@ public class HeaderMixin implements Mixin {
   public void setText(int title) {
     final TextView titleView = getTextView();
     if (titleView != null) {
-      if (autoTextSizeEnabled) {
-        // Override the text size setting of the header
-        autoAdjustTextSize(titleView);
-      }
-      titleView.setText(title);
+      setText(titleView.getContext().getText(title));
     }
   }
 
   /**
    * Sets the header text. This can also be set via the XML attribute {@code app:sucHeaderText}.
+   * If {@link PrecomputedTextHelper} is enabled, the text is measured off the main thread and set
+   * when ready.
    *
    * @param title The text to be set as header
    */
@@ -204,9 +229,9 @@ public class HeaderMixin implements Mixin {
     if (titleView != null) {
       if (autoTextSizeEnabled) {
         // Override the text size setting of the header
-        autoAdjustTextSize(titleView);
+        autoAdjustTextSize(titleView, title);
       }
-      titleView.setText(title);
+      PrecomputedTextHelper.setText(titleView, title);
     }
   }
 
@@ -214,44 +239,154 @@ public class HeaderMixin implements Mixin {
     if (titleView == null) {
       return;
     }
-    // preset as the max size
-    titleView.setTextSize(TypedValue.COMPLEX_UNIT_PX, headerAutoSizeMaxTextSizeInPx);
-    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
-      titleView.setLineHeight(
-          Math.round(headerAutoSizeLineExtraSpacingInPx + headerAutoSizeMaxTextSizeInPx));
+    autoAdjustTextSize(titleView, PrecomputedTextHelper.getText(titleView));
+  }
+
+  /**
+   * Sets the header text size to the max auto size, or to the min auto size if the text would take
+   * more than {@code headerAutoSizeMaxLineOfMaxSize} lines at the max size. The line count is
+   * measured with a {@link StaticLayout} against the measured width of the header. If the header
+   * has not been measured yet, the max size is preset and the size is resolved by {@link
+   * #onLayoutMeasured()} once the width is known.
+   */
+  private void autoAdjustTextSize(TextView titleView, CharSequence text) {
+    if (titleView == null) {
+      return;
     }
     titleView.setMaxLines(AUTO_SIZE_DEFAULT_MAX_LINES);
+    setAutoTextSize(titleView, resolveAutoTextSize(titleView, text));
+  }
 
-    // reset text size if the line count for max text size > headerAutoSizeMaxLineOfMaxTextSize
-    titleView
-        .getViewTreeObserver()
-        .addOnPreDrawListener(
-            new ViewTreeObserver.OnPreDrawListener() {
-              @Override
-              public boolean onPreDraw() {
-                // Remove listener to avoid this called every frame
-                titleView.getViewTreeObserver().removeOnPreDrawListener(this);
-                int lineCount = titleView.getLineCount();
-                if (lineCount > headerAutoSizeMaxLineOfMaxSize) {
-                  // reset text size
-                  titleView.setTextSize(TypedValue.COMPLEX_UNIT_PX, headerAutoSizeMinTextSizeInPx);
-                  if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
-                    titleView.setLineHeight(
-                        Math.round(
-                            headerAutoSizeLineExtraSpacingInPx + headerAutoSizeMinTextSizeInPx));
-                  }
-                  titleView.invalidate();
-                  return false; // false to skip this frame
-                }
-                return true;
-              }
-            });
+  /**
+   * Resolves the auto text size of the header for the width it was just measured with. The layout
+   * owning this mixin calls this after measuring its children, and before laying them out.
+   *
+   * @return true if the text size of the header changed, in which case the layout must measure its
+   *     children again, so that the header is laid out at its final size in the same pass
+   */
+  public boolean onLayoutMeasured() {
+    if (!autoTextSizeEnabled) {
+      return false;
+    }
+    final TextView titleView = getTextView();
+    if (titleView == null || titleView.getVisibility() == View.GONE) {
+      return false;
+    }
+    final float textSize = titleView.getTextSize();
+    setAutoTextSize(
+        titleView, resolveAutoTextSize(titleView, PrecomputedTextHelper.getText(titleView)));
+    return Float.compare(textSize, titleView.getTextSize()) != 0;
+  }
+
+  @VisibleForTesting
+  void setAutoTextSizeConfig(float maxTextSizeInPx, float minTextSizeInPx, int maxLineOfMaxSize) {
+    autoTextSizeEnabled = true;
+    headerAutoSizeMaxTextSizeInPx = maxTextSizeInPx;
+    headerAutoSizeMinTextSizeInPx = minTextSizeInPx;
+    headerAutoSizeMaxLineOfMaxSize = maxLineOfMaxSize;
   }
 
-  /** Returns the current header text. */
+  private float resolveAutoTextSize(TextView titleView, CharSequence text) {
+    final int width =
+        titleView.getMeasuredWidth()
+            - titleView.getCompoundPaddingLeft()
+            - titleView.getCompoundPaddingRight();
+    if (width <= 0 || text == null || text.length() == 0) {
+      // Preset as the max size until the width is known.
+      return headerAutoSizeMaxTextSizeInPx;
+    }
+
+    final float fontScale = titleView.getResources().getConfiguration().fontScale;
+    final TextPaint paint = new TextPaint(titleView.getPaint());
+    final StringBuilder cacheKey =
+        new StringBuilder()
+            .append(text)
+            .append('|')
+            .append(width)
+            .append('|')
+            .append(fontScale)
+            .append('|')
+            .append(headerAutoSizeMaxTextSizeInPx)
+            .append('|')
+            .append(headerAutoSizeMinTextSizeInPx)
+            .append('|')
+            .append(headerAutoSizeMaxLineOfMaxSize)
+            .append('|')
+            .append(paint.getTypeface() != null ? paint.getTypeface().hashCode() : 0)
+            .append('|')
+            .append(titleView.getIncludeFontPadding());
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+      cacheKey.append('|').append(paint.getLetterSpacing());
+    }
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+      cacheKey
+          .append('|')
+          .append(titleView.getBreakStrategy())
+          .append('|')
+          .append(titleView.getHyphenationFrequency());
+    }
+    final String key = cacheKey.toString();
+    Float cachedSize = autoTextSizeCache.get(key);
+    if (cachedSize != null) {
+      return cachedSize;
+    }
+
+    paint.setTextSize(headerAutoSizeMaxTextSizeInPx);
+    final StaticLayout layout = createStaticLayout(titleView, text, paint, width);
+    final float size =
+        layout.getLineCount() > headerAutoSizeMaxLineOfMaxSize
+            ? headerAutoSizeMinTextSizeInPx
+            : headerAutoSizeMaxTextSizeInPx;
+    autoTextSizeCache.put(key, size);
+    return size;
+  }
+
+  /**
+   * Lays out the text the way {@code titleView} would, using its break strategy and hyphenation
+   * frequency on M and above. The letter spacing and typeface are carried by {@code paint}.
+   */
+  private static StaticLayout createStaticLayout(
+      TextView titleView, CharSequence text, TextPaint paint, int width) {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+      return StaticLayout.Builder.obtain(text, 0, text.length(), paint, width)
+          .setAlignment(Layout.Alignment.ALIGN_NORMAL)
+          .setIncludePad(titleView.getIncludeFontPadding())
+          .setBreakStrategy(titleView.getBreakStrategy())
+          .setHyphenationFrequency(titleView.getHyphenationFrequency())
+          .build();
+    }
+    @SuppressWarnings("deprecation") // StaticLayout.Builder is not available before M
+    final StaticLayout layout =
+        new StaticLayout(
+            text,
+            paint,
+            width,
+            Layout.Alignment.ALIGN_NORMAL,
+            /* spacingmult= */ 1f,
+            /* spacingadd= */ 0f,
+            titleView.getIncludeFontPadding());
+    return layout;
+  }
+
+  private void setAutoTextSize(TextView titleView, float size) {
+    if (Float.compare(titleView.getTextSize(), size) != 0) {
+      titleView.setTextSize(TypedValue.COMPLEX_UNIT_PX, size);
+    }
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+      int lineHeight = Math.round(headerAutoSizeLineExtraSpacingInPx + size);
+      if (titleView.getLineHeight() != lineHeight) {
+        titleView.setLineHeight(lineHeight);
+      }
+    }
+  }
+
+  /**
+   * Returns the current header text. If {@link PrecomputedTextHelper} is still measuring the text
+   * most recently set, returns that text.
+   */
   public CharSequence getText() {
     final TextView titleView = getTextView();
-    return titleView != null ? titleView.getText() : null;
+    return titleView != null ? PrecomputedTextHelper.getText(titleView) : null;
   }
 
   /** Sets the visibility of header text */
@@ -34,6 +34,7 @@ import com.google.android.setupcompat.internal.TemplateLayout;
 import com.google.android.setupcompat.template.Mixin;
 import com.google.android.setupdesign.R;
 import com.google.android.setupdesign.util.HeaderAreaStyler;
+import com.google.android.setupdesign.util.LayoutPartnerConfigs;
 import com.google.android.setupdesign.util.PartnerStyleHelper;
 
 /**
@@ -93,9 +94,21 @@ public class IconMixin implements Mixin {
 
   /** Tries to apply the partner customization to the header icon. */
   public void tryApplyPartnerCustomizationStyle() {
+    tryApplyPartnerCustomizationStyle(
+        new LayoutPartnerConfigs(
+            templateLayout.getContext(),
+            PartnerStyleHelper.shouldApplyPartnerResource(templateLayout)));
+  }
+
+  /**
+   * Same as {@link #tryApplyPartnerCustomizationStyle()}, using the partner configs already
+   * resolved for the layout.
+   */
+  public void tryApplyPartnerCustomizationStyle(LayoutPartnerConfigs partnerConfigs) {
     // apply partner configs for icon
-    if (PartnerStyleHelper.shouldApplyPartnerResource(templateLayout)) {
-      HeaderAreaStyler.applyPartnerCustomizationIconStyle(getView(), getContainerView());
+    if (partnerConfigs.shouldApplyPartnerResource()) {
+      HeaderAreaStyler.applyPartnerCustomizationIconStyle(
+          getView(), getContainerView(), partnerConfigs);
     }
   }
 
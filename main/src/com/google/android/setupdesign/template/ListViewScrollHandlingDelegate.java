@@ -73,6 +73,10 @@ public class ListViewScrollHandlingDelegate
   @Override
   public void onScroll(
       AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+    if (requireScrollMixin.hasScrolledToBottom()) {
+      // The require-scroll state is final.
+      return;
+    }
     if (firstVisibleItem + visibleItemCount >= totalItemCount) {
       requireScrollMixin.notifyScrollabilityChange(false);
     } else {
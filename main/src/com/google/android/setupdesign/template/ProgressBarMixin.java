@@ -33,6 +33,7 @@ import com.google.android.setupcompat.internal.TemplateLayout;
 import com.google.android.setupcompat.template.Mixin;
 import com.google.android.setupdesign.R;
 import com.google.android.setupdesign.util.HeaderAreaStyler;
+import com.google.android.setupdesign.util.LayoutPartnerConfigs;
 import com.google.android.setupdesign.util.PartnerStyleHelper;
 
 /** A {@link Mixin} for showing a progress bar. */
@@ -188,6 +189,17 @@ public class ProgressBarMixin implements Mixin {
    * partner config isn't enable.
    */
   public void tryApplyPartnerCustomizationStyle() {
+    tryApplyPartnerCustomizationStyle(
+        new LayoutPartnerConfigs(
+            templateLayout.getContext(),
+            PartnerStyleHelper.shouldApplyPartnerResource(templateLayout)));
+  }
+
+  /**
+   * Same as {@link #tryApplyPartnerCustomizationStyle()}, using the partner configs already
+   * resolved for the layout.
+   */
+  public void tryApplyPartnerCustomizationStyle(LayoutPartnerConfigs partnerConfigs) {
     ProgressBar progressBar = peekProgressBar();
     if (!useBottomProgressBar || progressBar == null) {
       return;
@@ -196,7 +208,7 @@ public class ProgressBarMixin implements Mixin {
     boolean partnerHeavyThemeLayout = PartnerStyleHelper.isPartnerHeavyThemeLayout(templateLayout);
 
     if (partnerHeavyThemeLayout) {
-      HeaderAreaStyler.applyPartnerCustomizationProgressBarStyle(progressBar);
+      HeaderAreaStyler.applyPartnerCustomizationProgressBarStyle(progressBar, partnerConfigs);
     } else {
       Context context = progressBar.getContext();
       final ViewGroup.LayoutParams lp = progressBar.getLayoutParams();
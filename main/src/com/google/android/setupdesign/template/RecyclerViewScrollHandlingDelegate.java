@@ -58,6 +58,11 @@ public class RecyclerViewScrollHandlingDelegate implements ScrollHandlingDelegat
           new RecyclerView.OnScrollListener() {
             @Override
             public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+              if (requireScrollMixin.hasScrolledToBottom()) {
+                // The require-scroll state is final, stop computing the scroll range.
+                recyclerView.removeOnScrollListener(this);
+                return;
+              }
               requireScrollMixin.notifyScrollabilityChange(canScrollDown());
             }
           });
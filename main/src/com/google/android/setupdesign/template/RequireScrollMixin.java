@@ -71,6 +71,19 @@ public class RequireScrollMixin implements Mixin {
 
   private final Handler handler = new Handler(Looper.getMainLooper());
 
+  private final Runnable scrollStateChangeRunnable =
+      new Runnable() {
+        @Override
+        public void run() {
+          dispatchScrollStateChange();
+        }
+      };
+
+  private boolean scrollStateChangePending = false;
+
+  // The require-scroll state last dispatched to the listener.
+  private boolean dispatchedScrollNeeded = false;
+
   private boolean requiringScrollToBottom = false;
 
   // Whether the user have seen the more button yet.
@@ -276,25 +289,41 @@ public class RequireScrollMixin implements Mixin {
     }
     if (canScrollDown) {
       if (!everScrolledToBottom) {
-        postScrollStateChange(true);
         requiringScrollToBottom = true;
+        postScrollStateChange();
       }
     } else {
-      postScrollStateChange(false);
       requiringScrollToBottom = false;
       everScrolledToBottom = true;
+      postScrollStateChange();
     }
   }
 
-  private void postScrollStateChange(final boolean scrollNeeded) {
-    handler.post(
-        new Runnable() {
-          @Override
-          public void run() {
-            if (listener != null) {
-              listener.onRequireScrollStateChanged(scrollNeeded);
-            }
-          }
-        });
+  /**
+   * Returns true once the user scrolled to the bottom. Since scrolling is only required once, the
+   * require-scroll state cannot change anymore and delegates can stop analyzing scroll events.
+   */
+  boolean hasScrolledToBottom() {
+    return everScrolledToBottom;
+  }
+
+  private void postScrollStateChange() {
+    // Changes before the posted runnable runs are coalesced, the listener only gets the latest.
+    if (!scrollStateChangePending) {
+      scrollStateChangePending = true;
+      handler.post(scrollStateChangeRunnable);
+    }
+  }
+
+  private void dispatchScrollStateChange() {
+    scrollStateChangePending = false;
+    if (requiringScrollToBottom == dispatchedScrollNeeded) {
+      // The state flipped back before it was dispatched.
+      return;
+    }
+    dispatchedScrollNeeded = requiringScrollToBottom;
+    if (listener != null) {
+      listener.onRequireScrollStateChanged(dispatchedScrollNeeded);
+    }
   }
 }
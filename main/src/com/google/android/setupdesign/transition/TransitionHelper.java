@@ -151,6 +151,21 @@ public class TransitionHelper {
   /** A flag to avoid the {@link Activity#startActivityForResult} called more than once. */
   @VisibleForTesting static boolean isStartActivityForResult = false;
 
+  /**
+   * The transition type resolved from {@link #configTransitionTypeSource}. The partner
+   * configuration does not change while the same {@link PartnerConfigHelper} instance is in use,
+   * so it is resolved once instead of on every transition.
+   */
+  private static int configTransitionType = CONFIG_TRANSITION_NONE;
+
+  /**
+   * The partner config helper {@link #configTransitionType} was resolved from, or null if it has
+   * not been resolved yet. {@link PartnerConfigHelper#get(Context)} returns a new instance once the
+   * partner configuration is reset, for example by {@code PartnerConfigHelper.resetInstance()},
+   * which resolves the transition type again.
+   */
+  @Nullable private static PartnerConfigHelper configTransitionTypeSource = null;
+
   private TransitionHelper() {}
 
   /**
@@ -207,6 +222,10 @@ public class TransitionHelper {
    */
   @TargetApi(VERSION_CODES.LOLLIPOP)
   public static void applyForwardTransition(Activity activity, @TransitionType int transitionId) {
+    if (TransitionMetrics.hasPendingTransition()) {
+      TransitionMetrics.onForwardTransitionApplied(
+          transitionId, getConfigTransitionType(activity));
+    }
     if (transitionId == TRANSITION_SLIDE) {
       activity.overridePendingTransition(R.anim.sud_slide_next_in, R.anim.sud_slide_next_out);
     } else if (transitionId == TRANSITION_FADE) {
@@ -395,7 +414,9 @@ public class TransitionHelper {
 
     if (!isStartActivity) {
       isStartActivity = true;
-      if (getConfigTransitionType(activity) == CONFIG_TRANSITION_SHARED_X_AXIS) {
+      final int transitionType = getConfigTransitionType(activity);
+      TransitionMetrics.onTransitionStarted(transitionType);
+      if (transitionType == CONFIG_TRANSITION_SHARED_X_AXIS) {
         if (Build.VERSION.SDK_INT >= VERSION_CODES.LOLLIPOP) {
           if (activity.getWindow() != null
               && !activity.getWindow().hasFeature(Window.FEATURE_ACTIVITY_TRANSITIONS)) {
@@ -418,20 +439,22 @@ public class TransitionHelper {
               "Fallback to using startActivity due to the"
                   + " ActivityOptions#makeSceneTransitionAnimation is supported from Android Sdk "
                   + VERSION_CODES.LOLLIPOP);
-          startActivityWithTransitionInternal(activity, intent, overrideActivityOptions);
+          startActivityWithTransitionInternal(
+              activity, intent, overrideActivityOptions, transitionType);
         }
       } else {
-        startActivityWithTransitionInternal(activity, intent, overrideActivityOptions);
+        startActivityWithTransitionInternal(
+            activity, intent, overrideActivityOptions, transitionType);
       }
     }
     isStartActivity = false;
   }
 
   private static void startActivityWithTransitionInternal(
-      Activity activity, Intent intent, Bundle overrideActivityOptions) {
+      Activity activity, Intent intent, Bundle overrideActivityOptions, int transitionType) {
     try {
       if (Build.VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN) {
-        if (getConfigTransitionType(activity) == CONFIG_TRANSITION_SHARED_X_AXIS
+        if (transitionType == CONFIG_TRANSITION_SHARED_X_AXIS
             && overrideActivityOptions != null) {
           activity.startActivity(intent, overrideActivityOptions);
         } else {
@@ -485,7 +508,9 @@ public class TransitionHelper {
 
     if (!isStartActivityForResult) {
       isStartActivityForResult = true;
-      if (getConfigTransitionType(activity) == CONFIG_TRANSITION_SHARED_X_AXIS) {
+      final int transitionType = getConfigTransitionType(activity);
+      TransitionMetrics.onTransitionStarted(transitionType);
+      if (transitionType == CONFIG_TRANSITION_SHARED_X_AXIS) {
         if (Build.VERSION.SDK_INT >= VERSION_CODES.LOLLIPOP) {
           if (activity.getWindow() != null
               && !activity.getWindow().hasFeature(Window.FEATURE_ACTIVITY_TRANSITIONS)) {
@@ -509,21 +534,25 @@ public class TransitionHelper {
                   + " ActivityOptions#makeSceneTransitionAnimation is supported from Android Sdk "
                   + VERSION_CODES.LOLLIPOP);
           startActivityForResultWithTransitionInternal(
-              activity, intent, requestCode, overrideActivityOptions);
+              activity, intent, requestCode, overrideActivityOptions, transitionType);
         }
       } else {
         startActivityForResultWithTransitionInternal(
-            activity, intent, requestCode, overrideActivityOptions);
+            activity, intent, requestCode, overrideActivityOptions, transitionType);
       }
       isStartActivityForResult = false;
     }
   }
 
   private static void startActivityForResultWithTransitionInternal(
-      Activity activity, Intent intent, int requestCode, Bundle overrideActivityOptions) {
+      Activity activity,
+      Intent intent,
+      int requestCode,
+      Bundle overrideActivityOptions,
+      int transitionType) {
     try {
       if (Build.VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN) {
-        if (getConfigTransitionType(activity) == CONFIG_TRANSITION_SHARED_X_AXIS
+        if (transitionType == CONFIG_TRANSITION_SHARED_X_AXIS
             && overrideActivityOptions != null) {
           activity.startActivityForResult(intent, requestCode, overrideActivityOptions);
         } else {
@@ -575,13 +604,32 @@ public class TransitionHelper {
 
   /**
    * Returns the transition type from the {@link PartnerConfig#CONFIG_TRANSITION_TYPE} partner
-   * resource on Android S, otherwise returns {@link #CONFIG_TRANSITION_NONE}.
+   * resource on Android S, otherwise returns {@link #CONFIG_TRANSITION_NONE}. The value is resolved
+   * once per {@link PartnerConfigHelper} instance, so it follows {@code
+   * PartnerConfigHelper.resetInstance()}.
    */
   public static int getConfigTransitionType(Context context) {
-    return BuildCompatUtils.isAtLeastS() && ThemeHelper.shouldApplyExtendedPartnerConfig(context)
-        ? PartnerConfigHelper.get(context)
-            .getInteger(context, PartnerConfig.CONFIG_TRANSITION_TYPE, CONFIG_TRANSITION_NONE)
-        : CONFIG_TRANSITION_NONE;
+    if (!BuildCompatUtils.isAtLeastS() || !ThemeHelper.shouldApplyExtendedPartnerConfig(context)) {
+      return CONFIG_TRANSITION_NONE;
+    }
+    final PartnerConfigHelper partnerConfigHelper = PartnerConfigHelper.get(context);
+    if (partnerConfigHelper != configTransitionTypeSource) {
+      configTransitionType =
+          partnerConfigHelper.getInteger(
+              context, PartnerConfig.CONFIG_TRANSITION_TYPE, CONFIG_TRANSITION_NONE);
+      configTransitionTypeSource = partnerConfigHelper;
+    }
+    return configTransitionType;
+  }
+
+  /**
+   * Clears the cached transition type, so that it is resolved from the partner configuration again
+   * on the next transition. Resetting the partner configuration with {@code
+   * PartnerConfigHelper.resetInstance()} already does so, this is only needed if the partner
+   * resources change while the same {@link PartnerConfigHelper} instance is in use.
+   */
+  public static void resetConfigTransitionType() {
+    configTransitionTypeSource = null;
   }
 
   /**
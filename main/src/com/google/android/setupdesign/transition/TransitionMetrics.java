@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.setupdesign.transition;
+
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Opt-in instrumentation measuring the end-to-end latency of setup flow screen transitions. A
+ * transition starts when {@link TransitionHelper#startActivityWithTransition} or {@link
+ * TransitionHelper#startActivityForResultWithTransition} is called, is labeled with the type
+ * applied by {@link TransitionHelper#applyForwardTransition(android.app.Activity, int)} in the
+ * target activity, and ends on the first draw of the next {@link
+ * com.google.android.setupdesign.GlifLayout}. Latencies are aggregated into per-type histograms,
+ * which can be printed with {@link #dump(PrintWriter)}, for example from {@code Activity#dump}.
+ *
+ * <p>Only transitions between activities in the same process can be measured. A transition which
+ * does not reach the first draw of a {@link com.google.android.setupdesign.GlifLayout} within
+ * {@link #PENDING_TIMEOUT_MS}, e.g. because the target activity failed to start or is not a setup
+ * screen, is dropped without being recorded. All methods are expected to be called from the main
+ * thread.
+ */
+public final class TransitionMetrics {
+
+  /** Upper bounds (inclusive) of the histogram buckets in milliseconds. */
+  private static final long[] BUCKET_UPPER_BOUNDS_MS = {16, 33, 50, 100, 200, 300, 500, 1000};
+
+  /** Time after which a pending transition is considered abandoned and dropped. */
+  @VisibleForTesting static final long PENDING_TIMEOUT_MS = 5000;
+
+  /** Label used when the transition type is not known. */
+  @VisibleForTesting static final String LABEL_UNKNOWN = "unknown";
+
+  private static boolean enabled = false;
+
+  private static final Map<String, LatencyHistogram> histograms = new TreeMap<>();
+
+  /** Uptime at which the pending transition started, or -1 if no transition is pending. */
+  private static long pendingStartUptimeMs = -1;
+
+  /** Uptime at which the pending transition was applied in the target, or -1. */
+  private static long pendingApplyUptimeMs = -1;
+
+  @Nullable private static String pendingLabel = null;
+
+  private TransitionMetrics() {}
+
+  /** Enables or disables the collection of transition timings. Disabling clears pending state. */
+  public static void setEnabled(boolean enabled) {
+    TransitionMetrics.enabled = enabled;
+    if (!enabled) {
+      clearPending();
+    }
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns whether a transition has started and is waiting for the first draw of the target. A
+   * transition pending for longer than {@link #PENDING_TIMEOUT_MS} is dropped.
+   */
+  public static boolean hasPendingTransition() {
+    if (!enabled || pendingStartUptimeMs < 0) {
+      return false;
+    }
+    if (SystemClock.uptimeMillis() - pendingStartUptimeMs > PENDING_TIMEOUT_MS) {
+      clearPending();
+      return false;
+    }
+    return true;
+  }
+
+  /** Records the start of a transition with the given partner config transition type. */
+  static void onTransitionStarted(int configTransitionType) {
+    if (!enabled) {
+      return;
+    }
+    pendingStartUptimeMs = SystemClock.uptimeMillis();
+    pendingApplyUptimeMs = -1;
+    pendingLabel = getConfigTransitionLabel(configTransitionType);
+  }
+
+  /**
+   * Records that the forward transition was applied in the target activity, refining the label of
+   * the pending transition.
+   */
+  static void onForwardTransitionApplied(int transitionId, int configTransitionType) {
+    if (!hasPendingTransition()) {
+      return;
+    }
+    pendingApplyUptimeMs = SystemClock.uptimeMillis();
+    pendingLabel =
+        transitionId == TransitionHelper.TRANSITION_CAPTIVE
+            ? getConfigTransitionLabel(configTransitionType)
+            : getTransitionLabel(transitionId);
+  }
+
+  /** Records the first draw of the target screen, completing the pending transition. */
+  public static void onFirstDraw() {
+    if (!hasPendingTransition()) {
+      return;
+    }
+    long now = SystemClock.uptimeMillis();
+    String label = pendingLabel != null ? pendingLabel : LABEL_UNKNOWN;
+    LatencyHistogram histogram = histograms.get(label);
+    if (histogram == null) {
+      histogram = new LatencyHistogram();
+      histograms.put(label, histogram);
+    }
+    histogram.record(
+        now - pendingStartUptimeMs,
+        pendingApplyUptimeMs >= 0 ? pendingApplyUptimeMs - pendingStartUptimeMs : -1);
+    clearPending();
+  }
+
+  /** Returns the histogram recorded for the given transition label, or null if there is none. */
+  @Nullable
+  public static LatencyHistogram getHistogram(@NonNull String label) {
+    return histograms.get(label);
+  }
+
+  /** Clears all recorded histograms and pending state. */
+  public static void reset() {
+    histograms.clear();
+    clearPending();
+  }
+
+  /** Prints the recorded histograms, one line per transition type. */
+  public static void dump(@NonNull PrintWriter writer) {
+    writer.println("TransitionMetrics: enabled=" + enabled);
+    for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+      writer.println("  " + entry.getKey() + ": " + entry.getValue());
+    }
+  }
+
+  @NonNull
+  static String getTransitionLabel(int transitionId) {
+    switch (transitionId) {
+      case TransitionHelper.TRANSITION_NONE:
+        return "TRANSITION_NONE";
+      case TransitionHelper.TRANSITION_NO_OVERRIDE:
+        return "TRANSITION_NO_OVERRIDE";
+      case TransitionHelper.TRANSITION_FRAMEWORK_DEFAULT:
+        return "TRANSITION_FRAMEWORK_DEFAULT";
+      case TransitionHelper.TRANSITION_SLIDE:
+        return "TRANSITION_SLIDE";
+      case TransitionHelper.TRANSITION_FADE:
+        return "TRANSITION_FADE";
+      case TransitionHelper.TRANSITION_FRAMEWORK_DEFAULT_PRE_P:
+        return "TRANSITION_FRAMEWORK_DEFAULT_PRE_P";
+      case TransitionHelper.TRANSITION_CAPTIVE:
+        return "TRANSITION_CAPTIVE";
+      default:
+        return LABEL_UNKNOWN;
+    }
+  }
+
+  @NonNull
+  static String getConfigTransitionLabel(int configTransitionType) {
+    switch (configTransitionType) {
+      case TransitionHelper.CONFIG_TRANSITION_NONE:
+        return "CONFIG_TRANSITION_NONE";
+      case TransitionHelper.CONFIG_TRANSITION_SHARED_X_AXIS:
+        return "CONFIG_TRANSITION_SHARED_X_AXIS";
+      default:
+        return LABEL_UNKNOWN;
+    }
+  }
+
+  private static void clearPending() {
+    pendingStartUptimeMs = -1;
+    pendingApplyUptimeMs = -1;
+    pendingLabel = null;
+  }
+
+  /** A latency histogram for one transition type. */
+  public static final class LatencyHistogram {
+
+    /** Counts per bucket. The last bucket counts latencies above the largest upper bound. */
+    private final int[] bucketCounts = new int[BUCKET_UPPER_BOUNDS_MS.length + 1];
+
+    private int count;
+    private long totalMs;
+    private long maxMs;
+    private long totalApplyMs;
+    private int applyCount;
+
+    void record(long latencyMs, long applyLatencyMs) {
+      int bucket = 0;
+      while (bucket < BUCKET_UPPER_BOUNDS_MS.length && latencyMs > BUCKET_UPPER_BOUNDS_MS[bucket]) {
+        bucket++;
+      }
+      bucketCounts[bucket]++;
+      count++;
+      totalMs += latencyMs;
+      maxMs = Math.max(maxMs, latencyMs);
+      if (applyLatencyMs >= 0) {
+        totalApplyMs += applyLatencyMs;
+        applyCount++;
+      }
+    }
+
+    /** Returns the number of recorded transitions. */
+    public int getCount() {
+      return count;
+    }
+
+    /** Returns the mean latency from start to first draw, in milliseconds. */
+    public long getMeanMs() {
+      return count == 0 ? 0 : totalMs / count;
+    }
+
+    /** Returns the maximum latency from start to first draw, in milliseconds. */
+    public long getMaxMs() {
+      return maxMs;
+    }
+
+    /** Returns the mean latency from start until the transition was applied in the target. */
+    public long getMeanApplyMs() {
+      return applyCount == 0 ? 0 : totalApplyMs / applyCount;
+    }
+
+    /**
+     * Returns a copy of the bucket counts. Bucket {@code i} counts latencies up to {@link
+     * #getBucketUpperBoundsMs()}{@code [i]}, the last bucket counts all larger latencies.
+     */
+    @NonNull
+    public int[] getBucketCounts() {
+      return Arrays.copyOf(bucketCounts, bucketCounts.length);
+    }
+
+    @NonNull
+    public static long[] getBucketUpperBoundsMs() {
+      return Arrays.copyOf(BUCKET_UPPER_BOUNDS_MS, BUCKET_UPPER_BOUNDS_MS.length);
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb =
+          new StringBuilder()
+              .append("count=")
+              .append(count)
+              .append(" meanMs=")
+              .append(getMeanMs())
+              .append(" maxMs=")
+              .append(maxMs)
+              .append(" meanApplyMs=")
+              .append(getMeanApplyMs())
+              .append(" buckets=[");
+      for (int i = 0; i < bucketCounts.length; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append(i < BUCKET_UPPER_BOUNDS_MS.length ? "<=" + BUCKET_UPPER_BOUNDS_MS[i] : ">")
+            .append(i < BUCKET_UPPER_BOUNDS_MS.length ? "" : BUCKET_UPPER_BOUNDS_MS[i - 1])
+            .append(':')
+            .append(bucketCounts[i]);
+      }
+      return sb.append(']').toString();
+    }
+  }
+}
@@ -37,7 +37,6 @@ import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.vectordrawable.graphics.drawable.VectorDrawableCompat;
 import com.google.android.setupcompat.partnerconfig.PartnerConfig;
-import com.google.android.setupcompat.partnerconfig.PartnerConfigHelper;
 import com.google.android.setupdesign.R;
 import com.google.android.setupdesign.util.TextViewPartnerStyler.TextPartnerConfigs;
 
@@ -112,23 +111,34 @@ public final class HeaderAreaStyler {
     if (headerArea == null) {
       return;
     }
+    applyPartnerCustomizationHeaderAreaStyle(
+        headerArea, newPartnerConfigs(headerArea.getContext()));
+  }
 
-    Context context = headerArea.getContext();
-    int color =
-        PartnerConfigHelper.get(context)
-            .getColor(context, PartnerConfig.CONFIG_HEADER_AREA_BACKGROUND_COLOR);
+  /**
+   * Same as {@link #applyPartnerCustomizationHeaderAreaStyle(ViewGroup)}, using the partner configs
+   * already resolved for the layout containing {@code headerArea}.
+   *
+   * @param headerArea A ViewGroup would apply the partner style of header area
+   * @param partnerConfigs The partner configs of the layout containing {@code headerArea}
+   */
+  public static void applyPartnerCustomizationHeaderAreaStyle(
+      ViewGroup headerArea, LayoutPartnerConfigs partnerConfigs) {
+    if (headerArea == null) {
+      return;
+    }
+
+    int color = partnerConfigs.getColor(PartnerConfig.CONFIG_HEADER_AREA_BACKGROUND_COLOR);
     headerArea.setBackgroundColor(color);
 
-    if (PartnerConfigHelper.get(context)
-        .isPartnerConfigAvailable(PartnerConfig.CONFIG_HEADER_CONTAINER_MARGIN_BOTTOM)) {
+    if (partnerConfigs.isPartnerConfigAvailable(
+        PartnerConfig.CONFIG_HEADER_CONTAINER_MARGIN_BOTTOM)) {
       final ViewGroup.LayoutParams lp = headerArea.getLayoutParams();
       if (lp instanceof ViewGroup.MarginLayoutParams) {
         final ViewGroup.MarginLayoutParams mlp = (ViewGroup.MarginLayoutParams) lp;
 
         int bottomMargin =
-            (int)
-                PartnerConfigHelper.get(context)
-                    .getDimension(context, PartnerConfig.CONFIG_HEADER_CONTAINER_MARGIN_BOTTOM);
+            (int) partnerConfigs.getDimension(PartnerConfig.CONFIG_HEADER_CONTAINER_MARGIN_BOTTOM);
         mlp.setMargins(mlp.leftMargin, mlp.topMargin, mlp.rightMargin, bottomMargin);
         headerArea.setLayoutParams(lp);
       }
@@ -139,34 +149,34 @@ public final class HeaderAreaStyler {
     if (progressBar == null) {
       return;
     }
-    Context context = progressBar.getContext();
+    applyPartnerCustomizationProgressBarStyle(
+        progressBar, newPartnerConfigs(progressBar.getContext()));
+  }
+
+  /**
+   * Same as {@link #applyPartnerCustomizationProgressBarStyle(ProgressBar)}, using the partner
+   * configs already resolved for the layout containing {@code progressBar}.
+   */
+  public static void applyPartnerCustomizationProgressBarStyle(
+      @Nullable ProgressBar progressBar, LayoutPartnerConfigs partnerConfigs) {
+    if (progressBar == null) {
+      return;
+    }
     final ViewGroup.LayoutParams lp = progressBar.getLayoutParams();
 
     if (lp instanceof ViewGroup.MarginLayoutParams) {
       final ViewGroup.MarginLayoutParams mlp = (ViewGroup.MarginLayoutParams) lp;
+      // The margins are only read when the partner provides them, so the default values of the
+      // dimensions are never used.
       int marginTop = mlp.topMargin;
-      if (PartnerConfigHelper.get(context)
-          .isPartnerConfigAvailable(PartnerConfig.CONFIG_PROGRESS_BAR_MARGIN_TOP)) {
-        marginTop =
-            (int)
-                PartnerConfigHelper.get(context)
-                    .getDimension(
-                        context,
-                        PartnerConfig.CONFIG_PROGRESS_BAR_MARGIN_TOP,
-                        context.getResources().getDimension(R.dimen.sud_progress_bar_margin_top));
+      if (partnerConfigs.isPartnerConfigAvailable(PartnerConfig.CONFIG_PROGRESS_BAR_MARGIN_TOP)) {
+        marginTop = (int) partnerConfigs.getDimension(PartnerConfig.CONFIG_PROGRESS_BAR_MARGIN_TOP);
       }
       int marginBottom = mlp.bottomMargin;
-      if (PartnerConfigHelper.get(context)
-          .isPartnerConfigAvailable(PartnerConfig.CONFIG_PROGRESS_BAR_MARGIN_BOTTOM)) {
+      if (partnerConfigs.isPartnerConfigAvailable(
+          PartnerConfig.CONFIG_PROGRESS_BAR_MARGIN_BOTTOM)) {
         marginBottom =
-            (int)
-                PartnerConfigHelper.get(context)
-                    .getDimension(
-                        context,
-                        PartnerConfig.CONFIG_PROGRESS_BAR_MARGIN_BOTTOM,
-                        context
-                            .getResources()
-                            .getDimension(R.dimen.sud_progress_bar_margin_bottom));
+            (int) partnerConfigs.getDimension(PartnerConfig.CONFIG_PROGRESS_BAR_MARGIN_BOTTOM);
       }
 
       if (marginTop != mlp.topMargin || marginBottom != mlp.bottomMargin) {
@@ -187,6 +197,25 @@ public final class HeaderAreaStyler {
     if (iconImage == null || iconContainer == null) {
       return;
     }
+    applyPartnerCustomizationIconStyle(
+        iconImage, iconContainer, newPartnerConfigs(iconImage.getContext()));
+  }
+
+  /**
+   * Same as {@link #applyPartnerCustomizationIconStyle(ImageView, FrameLayout)}, using the partner
+   * configs already resolved for the layout containing {@code iconImage}.
+   *
+   * @param iconImage A ImageView would apply the partner style of header icon
+   * @param iconContainer The container of the header icon
+   * @param partnerConfigs The partner configs of the layout containing {@code iconImage}
+   */
+  public static void applyPartnerCustomizationIconStyle(
+      @Nullable ImageView iconImage,
+      FrameLayout iconContainer,
+      LayoutPartnerConfigs partnerConfigs) {
+    if (iconImage == null || iconContainer == null) {
+      return;
+    }
 
     Context context = iconImage.getContext();
     int reducedIconHeight = 0;
@@ -195,15 +224,12 @@ public final class HeaderAreaStyler {
       setGravity(iconImage, gravity);
     }
 
-    if (PartnerConfigHelper.get(context).isPartnerConfigAvailable(PartnerConfig.CONFIG_ICON_SIZE)) {
+    if (partnerConfigs.isPartnerConfigAvailable(PartnerConfig.CONFIG_ICON_SIZE)) {
       checkImageType(iconImage);
 
       final ViewGroup.LayoutParams lpIcon = iconImage.getLayoutParams();
 
-      lpIcon.height =
-          (int)
-              PartnerConfigHelper.get(context)
-                  .getDimension(context, PartnerConfig.CONFIG_ICON_SIZE);
+      lpIcon.height = (int) partnerConfigs.getDimension(PartnerConfig.CONFIG_ICON_SIZE);
 
       lpIcon.width = LayoutParams.WRAP_CONTENT;
       iconImage.setScaleType(ScaleType.FIT_CENTER);
@@ -221,19 +247,20 @@ public final class HeaderAreaStyler {
 
     final ViewGroup.LayoutParams lp = iconContainer.getLayoutParams();
     boolean partnerConfigAvailable =
-        PartnerConfigHelper.get(context)
-            .isPartnerConfigAvailable(PartnerConfig.CONFIG_ICON_MARGIN_TOP);
+        partnerConfigs.isPartnerConfigAvailable(PartnerConfig.CONFIG_ICON_MARGIN_TOP);
     if (partnerConfigAvailable && lp instanceof ViewGroup.MarginLayoutParams) {
       final ViewGroup.MarginLayoutParams mlp = (ViewGroup.MarginLayoutParams) lp;
-      int topMargin =
-          (int)
-              PartnerConfigHelper.get(context)
-                  .getDimension(context, PartnerConfig.CONFIG_ICON_MARGIN_TOP);
+      int topMargin = (int) partnerConfigs.getDimension(PartnerConfig.CONFIG_ICON_MARGIN_TOP);
       topMargin += reducedIconHeight;
       mlp.setMargins(mlp.leftMargin, topMargin, mlp.rightMargin, mlp.bottomMargin);
     }
   }
 
+  private static LayoutPartnerConfigs newPartnerConfigs(Context context) {
+    // Callers check whether partner resources apply before calling the methods of this class.
+    return new LayoutPartnerConfigs(context, /* shouldApplyPartnerResource= */ true);
+  }
+
   private static void checkImageType(ImageView imageView) {
     ViewTreeObserver vto = imageView.getViewTreeObserver();
     vto.addOnPreDrawListener(
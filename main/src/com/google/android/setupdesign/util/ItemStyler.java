@@ -64,10 +64,7 @@ public final class ItemStyler {
 
     // adjust list item view gravity
     TextView summaryTextView = listItemView.findViewById(R.id.sud_items_summary);
-    if (summaryTextView.getVisibility() == View.GONE && listItemView instanceof LinearLayout) {
-      // Set list items to vertical center when there is no summary.
-      ((LinearLayout) listItemView).setGravity(Gravity.CENTER_VERTICAL);
-    }
+    applyPartnerCustomizationItemGravity(listItemView, summaryTextView);
 
     // apply summary text style
     applyPartnerCustomizationItemSummaryStyle(summaryTextView);
@@ -76,6 +73,44 @@ public final class ItemStyler {
     applyPartnerCustomizationItemViewLayoutStyle(listItemView);
   }
 
+  /**
+   * Centers the content of the list item vertically if it has no summary, or restores the gravity
+   * it had before being centered if it has one. This is the part of {@link
+   * #applyPartnerCustomizationItemStyle(View)} that depends on the content of the list item, so it
+   * can be applied alone to a {@code listItemView} which was already styled with the current
+   * partner configs and has been bound to new content since. The user needs to check if the {@code
+   * listItemView} should apply heavy theme resource before calling this method.
+   *
+   * @param listItemView A view which has been applied heavy theme styles
+   * @param summaryTextView The summary text view of {@code listItemView}
+   */
+  public static void applyPartnerCustomizationItemGravity(
+      View listItemView, TextView summaryTextView) {
+    if (!(listItemView instanceof LinearLayout)) {
+      return;
+    }
+    final LinearLayout listItemLayout = (LinearLayout) listItemView;
+    final Object originalGravity = listItemLayout.getTag(R.id.sud_items_original_gravity);
+    if (summaryTextView.getVisibility() == View.GONE) {
+      if (originalGravity == null) {
+        listItemLayout.setTag(R.id.sud_items_original_gravity, getGravity(listItemLayout));
+      }
+      // Set list items to vertical center when there is no summary.
+      listItemLayout.setGravity(Gravity.CENTER_VERTICAL);
+    } else if (originalGravity != null) {
+      // A recycled list item which was centered for a previous content without summary.
+      listItemLayout.setGravity((Integer) originalGravity);
+    }
+  }
+
+  private static int getGravity(LinearLayout linearLayout) {
+    if (Build.VERSION.SDK_INT >= VERSION_CODES.N) {
+      return linearLayout.getGravity();
+    }
+    // The gravity of LinearLayout cannot be read before N, assume the default.
+    return Gravity.START | Gravity.TOP;
+  }
+
   /**
    * Applies the partner heavy style to the given list item title text view. Will check the current
    * text view enabled the partner customized heavy theme configurations before applying.
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.setupdesign.util;
+
+import android.content.Context;
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import com.google.android.setupcompat.partnerconfig.PartnerConfig;
+import com.google.android.setupcompat.partnerconfig.PartnerConfigHelper;
+import java.util.EnumMap;
+
+/**
+ * Partner configs resolved for one layout. A layout and the stylers it uses query the same configs
+ * several times while the layout is constructed, e.g. the layout margins. This resolves whether
+ * partner resources apply and each config value at most once, and returns the same result for the
+ * lifetime of the object. Since resolved values do not follow configuration changes, layouts only
+ * share an instance until they are inflated or attached to a window, including the initialization
+ * of subclasses and the styling of their mixins, and resolve the configs again for later updates.
+ * Instances are used from the main thread.
+ */
+public final class LayoutPartnerConfigs {
+
+  private final Context context;
+  private final boolean shouldApplyPartnerResource;
+
+  private final EnumMap<PartnerConfig, Boolean> availability = new EnumMap<>(PartnerConfig.class);
+  private final EnumMap<PartnerConfig, Float> dimensions = new EnumMap<>(PartnerConfig.class);
+  private final EnumMap<PartnerConfig, Integer> colors = new EnumMap<>(PartnerConfig.class);
+
+  private int lookupCount;
+
+  /**
+   * @param context The context of the layout, used to resolve the partner configs
+   * @param shouldApplyPartnerResource Whether the layout applies partner resources, as returned by
+   *     {@link PartnerStyleHelper#shouldApplyPartnerResource(android.view.View)}
+   */
+  public LayoutPartnerConfigs(@NonNull Context context, boolean shouldApplyPartnerResource) {
+    this.context = context;
+    this.shouldApplyPartnerResource = shouldApplyPartnerResource;
+  }
+
+  /** Returns whether the layout applies partner resources. */
+  public boolean shouldApplyPartnerResource() {
+    return shouldApplyPartnerResource;
+  }
+
+  /** Returns whether the given config is provided by the partner. */
+  public boolean isPartnerConfigAvailable(@NonNull PartnerConfig config) {
+    Boolean available = availability.get(config);
+    if (available == null) {
+      available = PartnerConfigHelper.get(context).isPartnerConfigAvailable(config);
+      lookupCount++;
+      availability.put(config, available);
+    }
+    return available;
+  }
+
+  /**
+   * Returns whether partner resources apply to the layout and the given config is provided by the
+   * partner.
+   */
+  public boolean shouldApplyPartnerConfig(@NonNull PartnerConfig config) {
+    return shouldApplyPartnerResource && isPartnerConfigAvailable(config);
+  }
+
+  /** Returns the dimension of the given config, see {@link PartnerConfigHelper#getDimension}. */
+  public float getDimension(@NonNull PartnerConfig config) {
+    Float dimension = dimensions.get(config);
+    if (dimension == null) {
+      dimension = PartnerConfigHelper.get(context).getDimension(context, config);
+      lookupCount++;
+      dimensions.put(config, dimension);
+    }
+    return dimension;
+  }
+
+  /** Returns the color of the given config, see {@link PartnerConfigHelper#getColor}. */
+  @ColorInt
+  public int getColor(@NonNull PartnerConfig config) {
+    Integer color = colors.get(config);
+    if (color == null) {
+      color = PartnerConfigHelper.get(context).getColor(context, config);
+      lookupCount++;
+      colors.put(config, color);
+    }
+    return color;
+  }
+
+  /** Returns the number of times a config was resolved through {@link PartnerConfigHelper}. */
+  @VisibleForTesting
+  int getLookupCount() {
+    return lookupCount;
+  }
+}
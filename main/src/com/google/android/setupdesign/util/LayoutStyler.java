@@ -96,18 +96,45 @@ public final class LayoutStyler {
     if (view == null) {
       return;
     }
+    final boolean shouldApplyPartnerResource = PartnerStyleHelper.shouldApplyPartnerResource(view);
+    applyPartnerCustomizationExtraPaddingStyle(
+        view,
+        new LayoutPartnerConfigs(view.getContext(), shouldApplyPartnerResource),
+        shouldApplyPartnerResource);
+  }
+
+  /**
+   * Same as {@link #applyPartnerCustomizationExtraPaddingStyle(View)}, using the partner configs
+   * already resolved for the layout containing {@code view}. Whether partner resources apply is
+   * still checked for {@code view} itself, as it may be attached to another layout than the one the
+   * configs were resolved for.
+   *
+   * @param view A view would be applied extra padding style based on the layout margin of partner
+   *     config.
+   * @param partnerConfigs The partner configs of the layout containing {@code view}
+   */
+  @TargetApi(VERSION_CODES.JELLY_BEAN_MR1)
+  public static void applyPartnerCustomizationExtraPaddingStyle(
+      @Nullable View view, LayoutPartnerConfigs partnerConfigs) {
+    if (view == null) {
+      return;
+    }
+    applyPartnerCustomizationExtraPaddingStyle(
+        view, partnerConfigs, PartnerStyleHelper.shouldApplyPartnerResource(view));
+  }
 
+  @TargetApi(VERSION_CODES.JELLY_BEAN_MR1)
+  private static void applyPartnerCustomizationExtraPaddingStyle(
+      View view, LayoutPartnerConfigs partnerConfigs, boolean shouldApplyPartnerResource) {
     Context context = view.getContext();
     boolean partnerMarginStartAvailable =
-        PartnerConfigHelper.get(context)
-            .isPartnerConfigAvailable(PartnerConfig.CONFIG_LAYOUT_MARGIN_START);
+        partnerConfigs.isPartnerConfigAvailable(PartnerConfig.CONFIG_LAYOUT_MARGIN_START);
     boolean partnerMarginEndAvailable =
-        PartnerConfigHelper.get(context)
-            .isPartnerConfigAvailable(PartnerConfig.CONFIG_LAYOUT_MARGIN_END);
+        partnerConfigs.isPartnerConfigAvailable(PartnerConfig.CONFIG_LAYOUT_MARGIN_END);
 
     // TODO: After all users added the check before calling the API, this check can be
     // deleted.
-    if (PartnerStyleHelper.shouldApplyPartnerResource(view)
+    if (shouldApplyPartnerResource
         && (partnerMarginStartAvailable || partnerMarginEndAvailable)) {
       int extraPaddingStart;
       int extraPaddingEnd;
@@ -122,9 +149,7 @@ public final class LayoutStyler {
         extraPaddingStart =
             max(
                 0,
-                ((int)
-                        PartnerConfigHelper.get(context)
-                            .getDimension(context, PartnerConfig.CONFIG_LAYOUT_MARGIN_START))
+                ((int) partnerConfigs.getDimension(PartnerConfig.CONFIG_LAYOUT_MARGIN_START))
                     - layoutMarginStart);
       } else {
         extraPaddingStart = view.getPaddingStart();
@@ -134,9 +159,7 @@ public final class LayoutStyler {
         extraPaddingEnd =
             max(
                 0,
-                ((int)
-                        PartnerConfigHelper.get(context)
-                            .getDimension(context, PartnerConfig.CONFIG_LAYOUT_MARGIN_END))
+                ((int) partnerConfigs.getDimension(PartnerConfig.CONFIG_LAYOUT_MARGIN_END))
                     - layoutMarginEnd);
       } else {
         extraPaddingEnd = view.getPaddingEnd();
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.setupdesign.util;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.util.Log;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Coordinates how the components of this library release memory when the system runs low on it.
+ * Components holding caches or other heavy objects register a {@link Trimmable}, and are asked to
+ * trim when the process receives {@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_LOW} or a more
+ * severe level, including {@link ComponentCallbacks2#TRIM_MEMORY_UI_HIDDEN}.
+ *
+ * <p>Call {@link #install(Context)} once, e.g. in {@code Application#onCreate}, to receive the
+ * callbacks of the process, or forward {@code onTrimMemory} to {@link #onTrimMemory(int)} from an
+ * existing {@link ComponentCallbacks2}.
+ *
+ * <p>{@link #dump(String, PrintWriter)} reports what each component currently holds, e.g. from
+ * {@code Activity#dump} so that it is included in bug reports.
+ */
+public final class MemoryTrimHelper {
+
+  private static final String TAG = "MemoryTrimHelper";
+
+  /** Returned by {@link Trimmable#getRetainedBytes()} if the size is not known. */
+  public static final long UNKNOWN_SIZE = -1;
+
+  /** A component which can release memory on request. */
+  public interface Trimmable {
+
+    /**
+     * Releases or downsizes what the component retains, as appropriate for the given level. The
+     * level is one of the {@code TRIM_MEMORY_*} levels of {@link ComponentCallbacks2}, at least
+     * {@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_LOW}. Called on the main thread.
+     */
+    void onTrimMemory(int level);
+
+    /** Returns an estimate of the memory retained by the component, or {@link #UNKNOWN_SIZE}. */
+    long getRetainedBytes();
+
+    /** Prints the state of the component's caches, one line each, starting with {@code prefix}. */
+    void dump(@NonNull String prefix, @NonNull PrintWriter writer);
+  }
+
+  private static final ArrayList<Registration> registrations = new ArrayList<>();
+
+  private static boolean installed = false;
+
+  private MemoryTrimHelper() {}
+
+  /**
+   * Registers the memory callbacks of this helper with the application of the given context. Has
+   * no effect if already installed.
+   */
+  @MainThread
+  public static void install(@NonNull Context context) {
+    if (installed) {
+      return;
+    }
+    installed = true;
+    context
+        .getApplicationContext()
+        .registerComponentCallbacks(
+            new ComponentCallbacks2() {
+              @Override
+              public void onTrimMemory(int level) {
+                MemoryTrimHelper.onTrimMemory(level);
+              }
+
+              @Override
+              public void onConfigurationChanged(@NonNull Configuration newConfig) {}
+
+              @Override
+              public void onLowMemory() {
+                MemoryTrimHelper.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+              }
+            });
+  }
+
+  /**
+   * Registers a component to be trimmed under memory pressure. The name identifies the component
+   * in {@link #getRetainedBytes()}.
+   */
+  public static void register(@NonNull String name, @NonNull Trimmable trimmable) {
+    synchronized (registrations) {
+      registrations.add(new Registration(name, trimmable));
+    }
+  }
+
+  /** Unregisters a component registered with {@link #register(String, Trimmable)}. */
+  public static void unregister(@NonNull Trimmable trimmable) {
+    synchronized (registrations) {
+      for (int i = registrations.size() - 1; i >= 0; i--) {
+        if (registrations.get(i).trimmable == trimmable) {
+          registrations.remove(i);
+        }
+      }
+    }
+  }
+
+  /**
+   * Asks the registered components to trim their memory for the given {@code TRIM_MEMORY_*} level.
+   * Levels below {@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_LOW} are ignored.
+   */
+  @MainThread
+  public static void onTrimMemory(int level) {
+    if (level < ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+      return;
+    }
+    for (Registration registration : getRegistrations()) {
+      registration.trimmable.onTrimMemory(level);
+    }
+    if (Log.isLoggable(TAG, Log.DEBUG)) {
+      Log.d(TAG, "Trimmed memory for level " + level + ", retained: " + getRetainedBytes());
+    }
+  }
+
+  /**
+   * Returns the memory retained by each registered component, keyed by name, as reported by {@link
+   * Trimmable#getRetainedBytes()}. Components registered more than once under the same name are
+   * summed up, unless one of them reports {@link #UNKNOWN_SIZE}.
+   */
+  @NonNull
+  public static Map<String, Long> getRetainedBytes() {
+    final LinkedHashMap<String, Long> retainedBytes = new LinkedHashMap<>();
+    for (Registration registration : getRegistrations()) {
+      final long bytes = registration.trimmable.getRetainedBytes();
+      final Long previous = retainedBytes.get(registration.name);
+      if (previous == null) {
+        retainedBytes.put(registration.name, bytes);
+      } else if (previous != UNKNOWN_SIZE) {
+        retainedBytes.put(
+            registration.name, bytes == UNKNOWN_SIZE ? UNKNOWN_SIZE : previous + bytes);
+      }
+    }
+    return retainedBytes;
+  }
+
+  /**
+   * Prints the memory retained by each registered component and the state of its caches. Intended
+   * to be called from {@code Activity#dump} or {@code Fragment#dump}.
+   */
+  @MainThread
+  public static void dump(@NonNull String prefix, @NonNull PrintWriter writer) {
+    writer.println(prefix + "setupdesign memory:");
+    final String componentPrefix = prefix + "  ";
+    for (Registration registration : getRegistrations()) {
+      final long bytes = registration.trimmable.getRetainedBytes();
+      writer.println(
+          componentPrefix
+              + registration.name
+              + ": retained="
+              + (bytes == UNKNOWN_SIZE ? "unknown" : bytes + " bytes"));
+      registration.trimmable.dump(componentPrefix + "  ", writer);
+    }
+  }
+
+  /** Returns a copy of the registrations, so components can unregister while being trimmed. */
+  private static ArrayList<Registration> getRegistrations() {
+    synchronized (registrations) {
+      return new ArrayList<>(registrations);
+    }
+  }
+
+  private static final class Registration {
+    final String name;
+    final Trimmable trimmable;
+
+    Registration(String name, Trimmable trimmable) {
+      this.name = name;
+      this.trimmable = trimmable;
+    }
+  }
+}
@@ -16,6 +16,7 @@
 
 package com.google.android.setupdesign.util;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.Intent;
 import android.content.pm.ApplicationInfo;
@@ -34,10 +35,12 @@ import androidx.annotation.ArrayRes;
 import androidx.annotation.BoolRes;
 import androidx.annotation.ColorRes;
 import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.annotation.StringRes;
 import androidx.annotation.VisibleForTesting;
+import java.io.PrintWriter;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -62,6 +65,39 @@ public class Partner {
   private static boolean searched = false;
   @Nullable private static Partner partner;
 
+  static {
+    MemoryTrimHelper.register(
+        "Partner",
+        new MemoryTrimHelper.Trimmable() {
+          @Override
+          public void onTrimMemory(int level) {
+            // Looking up the partner again queries the package manager, only worth it when the UI
+            // is hidden.
+            if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+              clearCache();
+            }
+          }
+
+          @Override
+          public long getRetainedBytes() {
+            return MemoryTrimHelper.UNKNOWN_SIZE;
+          }
+
+          @Override
+          public void dump(@NonNull String prefix, @NonNull PrintWriter writer) {
+            final String state;
+            synchronized (Partner.class) {
+              if (!searched) {
+                state = "not searched";
+              } else {
+                state = partner != null ? partner.getPackageName() : "none";
+              }
+            }
+            writer.println(prefix + "partner=" + state);
+          }
+        });
+  }
+
   /**
    * Gets the string-array from partner overlay. If not available, an empty array will be returned.
    *
@@ -221,6 +257,14 @@ public class Partner {
 
   @VisibleForTesting
   public static synchronized void resetForTesting() {
+    clearCache();
+  }
+
+  /**
+   * Drops the partner found by {@link #get(Context)} and its resources. The partner is looked up
+   * again the next time it is needed.
+   */
+  public static synchronized void clearCache() {
     searched = false;
     partner = null;
   }
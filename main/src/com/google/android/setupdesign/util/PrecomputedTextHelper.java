@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.setupdesign.util;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.PrecomputedText;
+import android.text.TextUtils;
+import android.util.Log;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+import com.google.android.setupdesign.view.RichTextView;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Helper to measure text off the main thread with {@link PrecomputedTextCompat} before setting it
+ * on a {@link TextView}. This takes text shaping off the critical path for long texts, at the cost
+ * of the text appearing once the measurement is done rather than synchronously.
+ *
+ * <p>This is opt-in, see {@link #setEnabled(boolean)}. When disabled, {@link #setText(TextView,
+ * CharSequence)} sets the text synchronously.
+ */
+public final class PrecomputedTextHelper {
+
+  private static final String TAG = "PrecomputedTextHelper";
+
+  private static boolean enabled = false;
+
+  @Nullable private static Executor executor;
+
+  private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+  /** The latest request per view, so that stale results are dropped. Main thread only. */
+  private static final WeakHashMap<TextView, Request> pendingRequests = new WeakHashMap<>();
+
+  private PrecomputedTextHelper() {}
+
+  /** Enables or disables measuring header and description text off the main thread. */
+  public static void setEnabled(boolean enabled) {
+    PrecomputedTextHelper.enabled = enabled;
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Sets the text of the given view. If enabled, the text is measured on a background thread using
+   * the current text metrics params of the view, and set when ready. Any call to this method for
+   * the same view supersedes pending requests.
+   *
+   * <p>The view must not change its text appearance (size, typeface, etc.) after calling this
+   * method, otherwise the precomputed text is discarded and the text is set synchronously instead.
+   * Until the text is set, {@link #getText(TextView)} returns the requested text.
+   */
+  public static void setText(@NonNull TextView textView, @Nullable CharSequence text) {
+    setText(textView, text, /* onTextSet= */ null);
+  }
+
+  /**
+   * Same as {@link #setText(TextView, CharSequence)}, and runs {@code onTextSet} on the main thread
+   * once the text is set on the view. {@code onTextSet} is not run if the request is superseded.
+   */
+  public static void setText(
+      @NonNull TextView textView, @Nullable CharSequence text, @Nullable Runnable onTextSet) {
+    if (!enabled || TextUtils.isEmpty(text)) {
+      pendingRequests.remove(textView);
+      textView.setText(text);
+      if (onTextSet != null) {
+        onTextSet.run();
+      }
+      return;
+    }
+
+    final CharSequence source =
+        textView instanceof RichTextView
+            ? RichTextView.getRichText(textView.getContext(), text)
+            : text;
+    final PrecomputedTextCompat.Params params = TextViewCompat.getTextMetricsParams(textView);
+    final Request request = new Request(text, onTextSet);
+    pendingRequests.put(textView, request);
+
+    getExecutor()
+        .execute(
+            () -> {
+              final PrecomputedTextCompat precomputedText =
+                  PrecomputedTextCompat.create(source, params);
+              mainHandler.post(
+                  () -> {
+                    if (pendingRequests.get(textView) != request) {
+                      // Superseded by a newer request.
+                      return;
+                    }
+                    pendingRequests.remove(textView);
+                    applyPrecomputedText(textView, precomputedText, source);
+                    if (request.onTextSet != null) {
+                      request.onTextSet.run();
+                    }
+                  });
+            });
+  }
+
+  /**
+   * Returns the text of the given view, or the text most recently requested with {@link
+   * #setText(TextView, CharSequence)} if it is still being measured.
+   */
+  @Nullable
+  public static CharSequence getText(@NonNull TextView textView) {
+    final Request request = pendingRequests.get(textView);
+    return request != null ? request.text : textView.getText();
+  }
+
+  /** Returns whether the text is already measured and can be set without processing it again. */
+  public static boolean isPrecomputedText(@Nullable CharSequence text) {
+    return text instanceof PrecomputedTextCompat
+        || (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P && text instanceof PrecomputedText);
+  }
+
+  private static void applyPrecomputedText(
+      TextView textView, PrecomputedTextCompat precomputedText, CharSequence source) {
+    try {
+      TextViewCompat.setPrecomputedText(textView, precomputedText);
+    } catch (IllegalArgumentException e) {
+      // The text appearance of the view changed while the text was being measured.
+      Log.w(TAG, "Text metrics params changed, setting text synchronously");
+      textView.setText(source);
+    }
+  }
+
+  /** Sets the executor measuring the text, or null to use the default background thread. */
+  @VisibleForTesting
+  public static synchronized void setExecutor(@Nullable Executor executor) {
+    PrecomputedTextHelper.executor = executor;
+  }
+
+  private static synchronized Executor getExecutor() {
+    if (executor == null) {
+      ThreadPoolExecutor threadPoolExecutor =
+          new ThreadPoolExecutor(
+              /* corePoolSize= */ 1,
+              /* maximumPoolSize= */ 1,
+              /* keepAliveTime= */ 5,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              runnable -> {
+                Thread thread = new Thread(runnable, "SudPrecomputedText");
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+              });
+      threadPoolExecutor.allowCoreThreadTimeOut(true);
+      executor = threadPoolExecutor;
+    }
+    return executor;
+  }
+
+  private static final class Request {
+    final CharSequence text;
+    @Nullable final Runnable onTextSet;
+
+    Request(CharSequence text, @Nullable Runnable onTextSet) {
+      this.text = text;
+      this.onTextSet = onTextSet;
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.util;
+
+import android.util.LruCache;
+import androidx.annotation.NonNull;
+import java.io.PrintWriter;
+import java.util.Map;
+
+/**
+ * An {@link LruCache} which registers itself with {@link MemoryTrimHelper} under the given name, so
+ * that it is cleared when the process is asked to trim memory. Subclasses override {@link
+ * #estimateBytes(Object, Object)} to report how much memory the cache retains.
+ */
+public class TrimmableLruCache<K, V> extends LruCache<K, V> implements MemoryTrimHelper.Trimmable {
+
+  public TrimmableLruCache(@NonNull String name, int maxSize) {
+    super(maxSize);
+    MemoryTrimHelper.register(name, this);
+  }
+
+  /**
+   * Returns an estimate of the memory retained by the given entry in bytes, or {@link
+   * MemoryTrimHelper#UNKNOWN_SIZE}. Unknown by default.
+   */
+  protected long estimateBytes(@NonNull K key, @NonNull V value) {
+    return MemoryTrimHelper.UNKNOWN_SIZE;
+  }
+
+  @Override
+  public void onTrimMemory(int level) {
+    evictAll();
+  }
+
+  @Override
+  public long getRetainedBytes() {
+    long bytes = 0;
+    for (Map.Entry<K, V> entry : snapshot().entrySet()) {
+      final long entryBytes = estimateBytes(entry.getKey(), entry.getValue());
+      if (entryBytes == MemoryTrimHelper.UNKNOWN_SIZE) {
+        return MemoryTrimHelper.UNKNOWN_SIZE;
+      }
+      bytes += entryBytes;
+    }
+    return bytes;
+  }
+
+  @Override
+  public void dump(@NonNull String prefix, @NonNull PrintWriter writer) {
+    writer.println(
+        prefix
+            + "entries="
+            + size()
+            + "/"
+            + maxSize()
+            + " hits="
+            + hitCount()
+            + " misses="
+            + missCount());
+  }
+}
@@ -39,10 +39,17 @@ public class BottomScrollView extends ScrollView {
   private int scrollThreshold;
   private boolean requiringScroll = false;
 
+  // Whether the last check found the view scrolled to the bottom, so that onScrolledToBottom is
+  // only called when the bottom is reached rather than on every scroll change.
+  private boolean scrolledToBottom = false;
+
+  private boolean checkScrollPending = false;
+
   private final Runnable checkScrollRunnable =
       new Runnable() {
         @Override
         public void run() {
+          checkScrollPending = false;
           checkScroll();
         }
       };
@@ -61,6 +68,11 @@ public class BottomScrollView extends ScrollView {
 
   public void setBottomScrollListener(BottomScrollListener l) {
     listener = l;
+    // Report the current state to the new listener.
+    scrolledToBottom = false;
+    if (getHeight() > 0) {
+      postCheckScroll();
+    }
   }
 
   @VisibleForTesting
@@ -76,13 +88,21 @@ public class BottomScrollView extends ScrollView {
   protected void onLayout(boolean changed, int l, int t, int r, int b) {
     super.onLayout(changed, l, t, r, b);
     final View child = getChildAt(0);
+    final int oldScrollThreshold = scrollThreshold;
     if (child != null) {
       scrollThreshold = Math.max(0, child.getMeasuredHeight() - b + t - getPaddingBottom());
     }
-    if (b - t > 0) {
+    if (b - t > 0 && (changed || scrollThreshold != oldScrollThreshold)) {
       // Post check scroll in the next run loop, so that the callback methods will be invoked
       // after the layout pass. This way a new layout pass will be scheduled if view
       // properties are changed in the callbacks.
+      postCheckScroll();
+    }
+  }
+
+  private void postCheckScroll() {
+    if (!checkScrollPending) {
+      checkScrollPending = true;
       post(checkScrollRunnable);
     }
   }
@@ -98,10 +118,16 @@ public class BottomScrollView extends ScrollView {
   private void checkScroll() {
     if (listener != null) {
       if (getScrollY() >= scrollThreshold) {
-        listener.onScrolledToBottom();
-      } else if (!requiringScroll) {
-        requiringScroll = true;
-        listener.onRequiresScroll();
+        if (!scrolledToBottom) {
+          scrolledToBottom = true;
+          listener.onScrolledToBottom();
+        }
+      } else {
+        scrolledToBottom = false;
+        if (!requiringScroll) {
+          requiringScroll = true;
+          listener.onRequiresScroll();
+        }
       }
     }
   }
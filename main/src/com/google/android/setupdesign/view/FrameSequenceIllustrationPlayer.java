@@ -0,0 +1,413 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.setupdesign.view;
+
+import android.content.Context;
+import android.content.pm.PackageManager.NameNotFoundException;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.drawable.AnimationDrawable;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Surface;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link IllustrationPlayer} which plays a pre-decoded frame sequence, defined as an {@code
+ * <animation-list>} drawable resource. All frames are kept in memory, so looping back to the first
+ * frame does not require seeking or decoding, which makes this backend cheaper than {@link
+ * MediaPlayerIllustrationPlayer} for short looped illustrations with a small number of frames.
+ *
+ * <p>The animation list is decoded on a background thread by {@link #prepareAsync()}. Frames are
+ * drawn onto the surface using a software canvas and advanced with the given {@link Handler},
+ * according to the durations declared in the animation list.
+ */
+public class FrameSequenceIllustrationPlayer implements IllustrationPlayer {
+
+  private static final String TAG = "FrameSequencePlayer";
+
+  /** Error code reported when the data source has not been set before preparing. */
+  public static final int MEDIA_ERROR_NO_DATA_SOURCE = -1;
+
+  /** Error code reported when the data source is not an {@code <animation-list>} drawable. */
+  public static final int MEDIA_ERROR_UNSUPPORTED_DATA_SOURCE = -2;
+
+  /** The player type of {@link #FACTORY}, under which its players are pooled. */
+  public static final String TYPE = "frame_sequence";
+
+  /** Factory creating {@link FrameSequenceIllustrationPlayer} instances on the main looper. */
+  public static final Factory FACTORY =
+      context -> new FrameSequenceIllustrationPlayer(new Handler(Looper.getMainLooper()));
+
+  @Nullable private static Executor defaultDecodeExecutor;
+
+  private final Handler handler;
+  private final Executor decodeExecutor;
+  private final Runnable advanceFrameRunnable = this::advanceFrame;
+
+  @Nullable private Listener listener;
+  @Nullable private Surface surface;
+  @Nullable private AnimationDrawable frames;
+
+  /** The resources and ID of the animation list to decode, set by {@link #setDataSource}. */
+  @Nullable private Resources sourceResources;
+
+  private int sourceResId;
+
+  /** The latest {@link #prepareAsync()} request, so that superseded results are dropped. */
+  @Nullable private Object pendingPrepare;
+
+  /** The start time of each frame, in milliseconds from the start of the sequence. */
+  private int[] frameStartMs = new int[0];
+
+  private int durationMs;
+  private int currentFrame;
+  private boolean prepared;
+  private boolean playing;
+  private boolean looping;
+  private boolean renderedFirstFrame;
+
+  public FrameSequenceIllustrationPlayer(@NonNull Handler handler) {
+    this(handler, getDefaultDecodeExecutor());
+  }
+
+  /**
+   * @param handler The handler on which frames are advanced and callbacks are invoked
+   * @param decodeExecutor The executor on which the animation list is decoded
+   */
+  public FrameSequenceIllustrationPlayer(
+      @NonNull Handler handler, @NonNull Executor decodeExecutor) {
+    this.handler = handler;
+    this.decodeExecutor = decodeExecutor;
+  }
+
+  @Override
+  public void setListener(@Nullable Listener listener) {
+    this.listener = listener;
+  }
+
+  @Override
+  public void setSurface(@Nullable Surface surface) {
+    this.surface = surface;
+    renderedFirstFrame = false;
+    if (prepared) {
+      renderFrame();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The resource is decoded by {@link #prepareAsync()}. If it is not an {@code <animation-list>}
+   * drawable, {@link Listener#onError} is called with {@link
+   * #MEDIA_ERROR_UNSUPPORTED_DATA_SOURCE}.
+   */
+  @Override
+  public void setDataSource(@NonNull Context context, @NonNull String packageName, int resId)
+      throws IOException {
+    Resources resources;
+    if (packageName.equals(context.getPackageName())) {
+      resources = context.getResources();
+    } else {
+      try {
+        resources = context.getPackageManager().getResourcesForApplication(packageName);
+      } catch (NameNotFoundException e) {
+        throw new IOException("Unable to load resources of " + packageName, e);
+      }
+    }
+    setFramesInternal(null);
+    sourceResources = resources;
+    sourceResId = resId;
+  }
+
+  /** Sets the frame sequence to play directly, instead of loading it from a resource. */
+  public void setFrames(@NonNull AnimationDrawable frames) {
+    setFramesInternal(frames);
+    sourceResources = null;
+  }
+
+  private void setFramesInternal(@Nullable AnimationDrawable frames) {
+    this.frames = frames;
+    pendingPrepare = null;
+    prepared = false;
+    currentFrame = 0;
+  }
+
+  @Override
+  public void prepareAsync() {
+    final Object request = new Object();
+    pendingPrepare = request;
+    final Resources resources = sourceResources;
+    if (frames != null || resources == null) {
+      handler.post(
+          () -> {
+            if (pendingPrepare == request) {
+              onFramesLoaded();
+            }
+          });
+      return;
+    }
+
+    final int resId = sourceResId;
+    decodeExecutor.execute(
+        () -> {
+          Drawable drawable = null;
+          try {
+            drawable = resources.getDrawable(resId);
+          } catch (Resources.NotFoundException e) {
+            Log.w(TAG, "Unable to load frames " + resId, e);
+          }
+          final Drawable decoded = drawable;
+          handler.post(
+              () -> {
+                if (pendingPrepare != request) {
+                  // Released, or superseded by a newer data source.
+                  return;
+                }
+                if (!(decoded instanceof AnimationDrawable)) {
+                  pendingPrepare = null;
+                  Log.w(TAG, "Resource " + resId + " is not an animation-list drawable");
+                  notifyError(MEDIA_ERROR_UNSUPPORTED_DATA_SOURCE);
+                  return;
+                }
+                frames = (AnimationDrawable) decoded;
+                onFramesLoaded();
+              });
+        });
+  }
+
+  private void onFramesLoaded() {
+    pendingPrepare = null;
+    if (frames == null || frames.getNumberOfFrames() == 0) {
+      notifyError(MEDIA_ERROR_NO_DATA_SOURCE);
+      return;
+    }
+    int frameCount = frames.getNumberOfFrames();
+    frameStartMs = new int[frameCount];
+    int time = 0;
+    for (int i = 0; i < frameCount; i++) {
+      frameStartMs[i] = time;
+      time += frames.getDuration(i);
+    }
+    durationMs = time;
+    prepared = true;
+    if (listener != null) {
+      listener.onPrepared(this);
+    }
+  }
+
+  @Override
+  public void start() {
+    if (!prepared || playing) {
+      return;
+    }
+    playing = true;
+    renderFrame();
+    scheduleNextFrame();
+  }
+
+  @Override
+  public void pause() {
+    playing = false;
+    handler.removeCallbacks(advanceFrameRunnable);
+  }
+
+  @Override
+  public boolean isPlaying() {
+    return playing;
+  }
+
+  @Override
+  public void seekTo(int milliseconds) {
+    if (!prepared) {
+      return;
+    }
+    int position = durationMs > 0 ? Math.max(0, milliseconds) % durationMs : 0;
+    int frame = 0;
+    while (frame + 1 < frameStartMs.length && frameStartMs[frame + 1] <= position) {
+      frame++;
+    }
+    currentFrame = frame;
+    renderFrame();
+    if (playing) {
+      handler.removeCallbacks(advanceFrameRunnable);
+      scheduleNextFrame();
+    }
+    handler.post(
+        () -> {
+          if (listener != null) {
+            listener.onSeekComplete(this);
+          }
+        });
+  }
+
+  @Override
+  public int getCurrentPosition() {
+    return prepared ? frameStartMs[currentFrame] : 0;
+  }
+
+  /** Returns the total duration of one loop of the sequence in milliseconds. */
+  public int getDuration() {
+    return durationMs;
+  }
+
+  @Override
+  public int getVideoWidth() {
+    return frames == null || frames.getNumberOfFrames() == 0
+        ? 0
+        : frames.getFrame(0).getIntrinsicWidth();
+  }
+
+  @Override
+  public int getVideoHeight() {
+    return frames == null || frames.getNumberOfFrames() == 0
+        ? 0
+        : frames.getFrame(0).getIntrinsicHeight();
+  }
+
+  @Override
+  public void setLooping(boolean looping) {
+    this.looping = looping;
+  }
+
+  /** Returns the number of bytes held by the decoded bitmaps of this sequence. */
+  @Override
+  public long getRetainedBytes() {
+    if (frames == null) {
+      return 0;
+    }
+    IdentityHashMap<Bitmap, Boolean> bitmaps = new IdentityHashMap<>();
+    long bytes = 0;
+    for (int i = 0; i < frames.getNumberOfFrames(); i++) {
+      Drawable frame = frames.getFrame(i);
+      if (frame instanceof BitmapDrawable) {
+        Bitmap bitmap = ((BitmapDrawable) frame).getBitmap();
+        if (bitmap != null && bitmaps.put(bitmap, Boolean.TRUE) == null) {
+          bytes += bitmap.getRowBytes() * bitmap.getHeight();
+        }
+      }
+    }
+    return bytes;
+  }
+
+  @Override
+  public void release() {
+    pause();
+    handler.removeCallbacksAndMessages(null);
+    pendingPrepare = null;
+    prepared = false;
+    frames = null;
+    sourceResources = null;
+    surface = null;
+    listener = null;
+  }
+
+  @VisibleForTesting
+  int getCurrentFrame() {
+    return currentFrame;
+  }
+
+  private void scheduleNextFrame() {
+    if (frames != null) {
+      handler.postDelayed(advanceFrameRunnable, frames.getDuration(currentFrame));
+    }
+  }
+
+  private void advanceFrame() {
+    if (!playing || frames == null) {
+      return;
+    }
+    int nextFrame = currentFrame + 1;
+    if (nextFrame >= frames.getNumberOfFrames()) {
+      if (!looping) {
+        playing = false;
+        return;
+      }
+      nextFrame = 0;
+    }
+    currentFrame = nextFrame;
+    renderFrame();
+    scheduleNextFrame();
+  }
+
+  private void renderFrame() {
+    if (frames == null || surface == null || !surface.isValid()) {
+      return;
+    }
+    Canvas canvas;
+    try {
+      canvas = surface.lockCanvas(null);
+    } catch (IllegalArgumentException | Surface.OutOfResourcesException e) {
+      Log.w(TAG, "Unable to lock surface canvas", e);
+      return;
+    }
+    try {
+      canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+      Drawable frame = frames.getFrame(currentFrame);
+      frame.setBounds(0, 0, canvas.getWidth(), canvas.getHeight());
+      frame.draw(canvas);
+    } finally {
+      surface.unlockCanvasAndPost(canvas);
+    }
+    if (!renderedFirstFrame) {
+      renderedFirstFrame = true;
+      if (listener != null) {
+        listener.onRenderingStart(this);
+      }
+    }
+  }
+
+  private static synchronized Executor getDefaultDecodeExecutor() {
+    if (defaultDecodeExecutor == null) {
+      ThreadPoolExecutor threadPoolExecutor =
+          new ThreadPoolExecutor(
+              /* corePoolSize= */ 1,
+              /* maximumPoolSize= */ 1,
+              /* keepAliveTime= */ 5,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              runnable -> {
+                Thread thread = new Thread(runnable, "SudFrameSequenceDecoder");
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+              });
+      threadPoolExecutor.allowCoreThreadTimeOut(true);
+      defaultDecodeExecutor = threadPoolExecutor;
+    }
+    return defaultDecodeExecutor;
+  }
+
+  private void notifyError(int what) {
+    if (listener != null) {
+      listener.onError(this, what, 0);
+    }
+  }
+}
@@ -27,8 +27,12 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.view.accessibility.AccessibilityEvent;
 import android.widget.FrameLayout;
+import androidx.annotation.NonNull;
 import com.google.android.setupdesign.DividerItemDecoration;
 import com.google.android.setupdesign.R;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * A RecyclerView that can display a header item at the start of the list. The header can be set by
@@ -56,17 +60,20 @@ public class HeaderRecyclerView extends RecyclerView {
   }
 
   /**
-   * An adapter that can optionally add one header item to the RecyclerView.
+   * An adapter that can optionally add header items to the RecyclerView. Notifications from the
+   * wrapped adapter, including payloads, are forwarded once with their positions offset by the
+   * number of headers. Stable IDs of the wrapped adapter are preserved.
    *
    * @param <CVH> Type of the content view holder. i.e. view holder type of the wrapped adapter.
    */
   public static class HeaderAdapter<CVH extends ViewHolder>
       extends RecyclerView.Adapter<ViewHolder> {
 
+    /** View type of the first header. Each header has its own view type, counting down. */
     private static final int HEADER_VIEW_TYPE = Integer.MAX_VALUE;
 
     private final RecyclerView.Adapter<CVH> adapter;
-    private View header;
+    private final ArrayList<View> headers = new ArrayList<>();
 
     private final AdapterDataObserver observer =
         new AdapterDataObserver() {
@@ -78,38 +85,31 @@ public class HeaderRecyclerView extends RecyclerView {
 
           @Override
           public void onItemRangeChanged(int positionStart, int itemCount) {
-            if (header != null) {
-              positionStart++;
-            }
-            notifyItemRangeChanged(positionStart, itemCount);
+            notifyItemRangeChanged(positionStart + headers.size(), itemCount);
+          }
+
+          @Override
+          public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            notifyItemRangeChanged(positionStart + headers.size(), itemCount, payload);
           }
 
           @Override
           public void onItemRangeInserted(int positionStart, int itemCount) {
-            if (header != null) {
-              positionStart++;
-            }
-            notifyItemRangeInserted(positionStart, itemCount);
+            notifyItemRangeInserted(positionStart + headers.size(), itemCount);
           }
 
           @Override
           public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
-            if (header != null) {
-              fromPosition++;
-              toPosition++;
-            }
+            final int headerCount = headers.size();
             // Why is there no notifyItemRangeMoved?
             for (int i = 0; i < itemCount; i++) {
-              notifyItemMoved(fromPosition + i, toPosition + i);
+              notifyItemMoved(fromPosition + headerCount + i, toPosition + headerCount + i);
             }
           }
 
           @Override
           public void onItemRangeRemoved(int positionStart, int itemCount) {
-            if (header != null) {
-              positionStart++;
-            }
-            notifyItemRangeRemoved(positionStart, itemCount);
+            notifyItemRangeRemoved(positionStart + headers.size(), itemCount);
           }
         };
 
@@ -126,7 +126,7 @@ public class HeaderRecyclerView extends RecyclerView {
       // animations applied on the header and this necessitates creation of another header
       // view to use after the animation. We work around this restriction by returning an
       // empty FrameLayout to which the header is attached using #onBindViewHolder method.
-      if (viewType == HEADER_VIEW_TYPE) {
+      if (getHeaderIndex(viewType) >= 0) {
         FrameLayout frameLayout = new FrameLayout(parent.getContext());
         FrameLayout.LayoutParams params =
             new FrameLayout.LayoutParams(
@@ -139,67 +139,86 @@ public class HeaderRecyclerView extends RecyclerView {
     }
 
     @Override
-    @SuppressWarnings("unchecked") // Non-header position always return type CVH
     public void onBindViewHolder(ViewHolder holder, int position) {
-      if (header != null) {
-        position--;
-      }
+      onBindViewHolder(holder, position, Collections.emptyList());
+    }
 
+    @Override
+    @SuppressWarnings("unchecked") // Non-header position always return type CVH
+    public void onBindViewHolder(ViewHolder holder, int position, List<Object> payloads) {
+      final int headerCount = headers.size();
       if (holder instanceof HeaderViewHolder) {
-        if (header == null) {
+        if (position >= headerCount) {
           throw new IllegalStateException("HeaderViewHolder cannot find mHeader");
         }
+        final View header = headers.get(position);
+        final FrameLayout mHeaderParent = (FrameLayout) holder.itemView;
+        if (header.getParent() == mHeaderParent) {
+          // Rebinding the holder that already contains the header, e.g. for a change payload.
+          return;
+        }
         if (header.getParent() != null) {
           ((ViewGroup) header.getParent()).removeView(header);
         }
-        FrameLayout mHeaderParent = (FrameLayout) holder.itemView;
+        mHeaderParent.removeAllViews();
         mHeaderParent.addView(header);
       } else {
-        adapter.onBindViewHolder((CVH) holder, position);
+        adapter.onBindViewHolder((CVH) holder, position - headerCount, payloads);
       }
     }
 
     @Override
     public int getItemViewType(int position) {
-      if (header != null) {
-        position--;
-      }
-      if (position < 0) {
-        return HEADER_VIEW_TYPE;
+      final int headerCount = headers.size();
+      if (position < headerCount) {
+        return HEADER_VIEW_TYPE - position;
       }
-      return adapter.getItemViewType(position);
+      return adapter.getItemViewType(position - headerCount);
     }
 
     @Override
     public int getItemCount() {
-      int count = adapter.getItemCount();
-      if (header != null) {
-        count++;
-      }
-      return count;
+      return adapter.getItemCount() + headers.size();
     }
 
     @Override
     public long getItemId(int position) {
-      if (header != null) {
-        position--;
-      }
-      if (position < 0) {
-        return Long.MAX_VALUE;
+      final int headerCount = headers.size();
+      if (position < headerCount) {
+        return Long.MAX_VALUE - position;
       }
-      return adapter.getItemId(position);
+      return adapter.getItemId(position - headerCount);
     }
 
+    /** Sets the only header of this adapter, or removes all headers if {@code header} is null. */
     public void setHeader(View header) {
-      this.header = header;
+      headers.clear();
+      if (header != null) {
+        headers.add(header);
+      }
+    }
+
+    /** Adds a header after the existing headers. This must be called before the adapter is used. */
+    public void addHeader(@NonNull View header) {
+      headers.add(header);
+    }
+
+    /** Returns the number of headers shown before the items of the wrapped adapter. */
+    public int getHeaderCount() {
+      return headers.size();
     }
 
     public RecyclerView.Adapter<CVH> getWrappedAdapter() {
       return adapter;
     }
+
+    private int getHeaderIndex(int viewType) {
+      final int index = HEADER_VIEW_TYPE - viewType;
+      return index >= 0 && index < headers.size() ? index : -1;
+    }
   }
 
-  private View header;
+  private final ArrayList<View> headers = new ArrayList<>();
   private int headerRes;
 
   public HeaderRecyclerView(Context context) {
@@ -235,7 +254,7 @@ public class HeaderRecyclerView extends RecyclerView {
 
     // Decoration-only headers should not count as an item for accessibility, adjust the
     // accessibility event to account for that.
-    final int numberOfHeaders = header != null ? 1 : 0;
+    final int numberOfHeaders = headers.size();
     event.setItemCount(event.getItemCount() - numberOfHeaders);
     event.setFromIndex(Math.max(event.getFromIndex() - numberOfHeaders, 0));
     if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
@@ -344,36 +363,54 @@ public class HeaderRecyclerView extends RecyclerView {
     return super.dispatchKeyEvent(event);
   }
 
-  /** Gets the header view of this RecyclerView, or {@code null} if there are no headers. */
+  /** Gets the first header view of this RecyclerView, or {@code null} if there are no headers. */
   public View getHeader() {
-    return header;
+    return headers.isEmpty() ? null : headers.get(0);
   }
 
   /**
-   * Set the view to use as the header of this recycler view. Note: This must be called before
-   * setAdapter.
+   * Set the view to use as the header of this recycler view, replacing any other headers. Note:
+   * This must be called before setAdapter.
    */
   public void setHeader(View header) {
-    this.header = header;
+    headers.clear();
+    if (header != null) {
+      headers.add(header);
+    }
+  }
+
+  /**
+   * Adds a header after the existing headers of this recycler view. Note: This must be called
+   * before setAdapter.
+   */
+  public void addHeader(@NonNull View header) {
+    headers.add(header);
+  }
+
+  /** Returns the number of headers of this recycler view. */
+  public int getHeaderCount() {
+    return headers.size();
   }
 
   @Override
   public void setLayoutManager(LayoutManager layout) {
     super.setLayoutManager(layout);
-    if (layout != null && header == null && headerRes != 0) {
+    if (layout != null && headers.isEmpty() && headerRes != 0) {
       // Inflating a child view requires the layout manager to be set. Check here to see if
       // any header item is specified in XML and inflate them.
       final LayoutInflater inflater = LayoutInflater.from(getContext());
-      header = inflater.inflate(headerRes, this, false);
+      headers.add(inflater.inflate(headerRes, this, false));
     }
   }
 
   @Override
   @SuppressWarnings("rawtypes,unchecked") // RecyclerView.setAdapter uses raw type :(
   public void setAdapter(Adapter adapter) {
-    if (header != null && adapter != null) {
+    if (!headers.isEmpty() && adapter != null) {
       final HeaderAdapter headerAdapter = new HeaderAdapter(adapter);
-      headerAdapter.setHeader(header);
+      for (View header : headers) {
+        headerAdapter.addHeader(header);
+      }
       adapter = headerAdapter;
     }
     super.setAdapter(adapter);
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.setupdesign.view;
+
+import android.content.Context;
+import android.view.Surface;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.IOException;
+
+/**
+ * A player which renders a looping, silent illustration onto a {@link Surface}. This is the
+ * playback backend used by {@link IllustrationVideoView}, and mirrors the subset of {@link
+ * android.media.MediaPlayer} that the view needs so that cheaper decoders can be plugged in for
+ * short looped illustrations.
+ *
+ * @see MediaPlayerIllustrationPlayer
+ * @see FrameSequenceIllustrationPlayer
+ */
+public interface IllustrationPlayer {
+
+  /** Creates players for {@link IllustrationVideoView}. */
+  interface Factory {
+    @NonNull
+    IllustrationPlayer create(@NonNull Context context);
+  }
+
+  /** Callbacks for player state changes. Callbacks are invoked on the main thread. */
+  interface Listener {
+    /** Called when the player is ready for playback. */
+    void onPrepared(@NonNull IllustrationPlayer player);
+
+    /** Called when the first frame has been pushed to the surface. */
+    void onRenderingStart(@NonNull IllustrationPlayer player);
+
+    /** Called when a seek operation has completed. */
+    void onSeekComplete(@NonNull IllustrationPlayer player);
+
+    /**
+     * Called when an error occurred during playback.
+     *
+     * @return true if the error was handled
+     */
+    boolean onError(@NonNull IllustrationPlayer player, int what, int extra);
+  }
+
+  void setListener(@Nullable Listener listener);
+
+  void setSurface(@Nullable Surface surface);
+
+  /**
+   * Sets the illustration resource to play.
+   *
+   * @param context The context used to load the resource.
+   * @param packageName The package name the resource belongs to.
+   * @param resId The resource ID of the illustration.
+   * @throws IOException if the resource cannot be opened
+   */
+  void setDataSource(@NonNull Context context, @NonNull String packageName, int resId)
+      throws IOException;
+
+  /**
+   * Prepares the player for playback. {@link Listener#onPrepared(IllustrationPlayer)} is invoked
+   * when the player is ready.
+   */
+  void prepareAsync();
+
+  void start();
+
+  void pause();
+
+  boolean isPlaying();
+
+  void seekTo(int milliseconds);
+
+  int getCurrentPosition();
+
+  int getVideoWidth();
+
+  int getVideoHeight();
+
+  void setLooping(boolean looping);
+
+  /** Returns an estimate of the memory held by the decoded illustration, in bytes. */
+  long getRetainedBytes();
+
+  /** Releases all resources held by this player. The player cannot be used afterwards. */
+  void release();
+}
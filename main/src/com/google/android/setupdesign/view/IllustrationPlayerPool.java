@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.setupdesign.view;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import com.google.android.setupdesign.util.MemoryTrimHelper;
+import java.io.PrintWriter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A small LRU pool of prepared players, keyed by the type of player and the video resource it was
+ * prepared for, see {@link #keyFor(String, String, int)}. Views return their player to the pool
+ * when their surface goes away, so that the next view showing the same video (for example after a
+ * rotation or on the next screen of the flow) can reattach the already prepared player to its new
+ * surface instead of decoding the video again.
+ *
+ * <p>The pool is not thread-safe and is expected to be accessed from the main thread only. It can
+ * be registered with {@link MemoryTrimHelper}, which releases all pooled players on trim.
+ *
+ * @param <P> The type of player held by this pool.
+ */
+public final class IllustrationPlayerPool<P> implements MemoryTrimHelper.Trimmable {
+
+  /** Releases players which are evicted from or cleared out of the pool. */
+  public interface Releaser<P> {
+    void release(@NonNull P player);
+  }
+
+  /** Estimates the memory held by a pooled player, see {@link #getRetainedBytes()}. */
+  public interface Sizer<P> {
+    long getRetainedBytes(@NonNull P player);
+  }
+
+  private final LinkedHashMap<String, P> players = new LinkedHashMap<>(4, 0.75f, true);
+  private final Releaser<P> releaser;
+  @Nullable private final Sizer<P> sizer;
+  private final int maxSize;
+
+  public IllustrationPlayerPool(int maxSize, @NonNull Releaser<P> releaser) {
+    this(maxSize, releaser, /* sizer= */ null);
+  }
+
+  public IllustrationPlayerPool(
+      int maxSize, @NonNull Releaser<P> releaser, @Nullable Sizer<P> sizer) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("maxSize must not be negative: " + maxSize);
+    }
+    this.maxSize = maxSize;
+    this.releaser = releaser;
+    this.sizer = sizer;
+  }
+
+  /**
+   * Returns the key under which a player of the given type, prepared for the given video resource,
+   * is pooled.
+   *
+   * @param playerType The type of player, such as {@link MediaPlayerIllustrationPlayer#TYPE}
+   * @param packageName The package name the resource belongs to
+   * @param resId The resource ID of the video
+   */
+  @NonNull
+  public static String keyFor(@NonNull String playerType, @Nullable String packageName, int resId) {
+    return playerType + ":" + packageName + "/" + resId;
+  }
+
+  /**
+   * Removes and returns the pooled player for the given key, or null if there is none. The caller
+   * owns the returned player until it is given back with {@link #offer(String, Object)}.
+   */
+  @Nullable
+  public P acquire(@NonNull String key) {
+    return players.remove(key);
+  }
+
+  /**
+   * Returns a player to the pool. If there is already a player pooled under the same key, or the
+   * pool is full, the surplus players are released.
+   */
+  public void offer(@NonNull String key, @NonNull P player) {
+    P previous = players.put(key, player);
+    if (previous != null && previous != player) {
+      releaser.release(previous);
+    }
+    trimToSize(maxSize);
+  }
+
+  /** Releases the least recently used players until at most {@code size} players remain. */
+  public void trimToSize(int size) {
+    Iterator<Map.Entry<String, P>> iterator = players.entrySet().iterator();
+    while (players.size() > size && iterator.hasNext()) {
+      P player = iterator.next().getValue();
+      iterator.remove();
+      releaser.release(player);
+    }
+  }
+
+  /** Releases all pooled players. */
+  public void clear() {
+    trimToSize(0);
+  }
+
+  /** Returns the number of players currently held by the pool. */
+  public int size() {
+    return players.size();
+  }
+
+  @Override
+  public void onTrimMemory(int level) {
+    // Idle players only save preparing the video again, release them.
+    clear();
+  }
+
+  /**
+   * Returns the memory held by the pooled players as estimated by the {@link Sizer} given to the
+   * constructor, or {@link MemoryTrimHelper#UNKNOWN_SIZE} if there is none.
+   */
+  @Override
+  public long getRetainedBytes() {
+    if (sizer == null) {
+      return MemoryTrimHelper.UNKNOWN_SIZE;
+    }
+    long bytes = 0;
+    for (P player : players.values()) {
+      bytes += sizer.getRetainedBytes(player);
+    }
+    return bytes;
+  }
+
+  @Override
+  public void dump(@NonNull String prefix, @NonNull PrintWriter writer) {
+    writer.println(prefix + "players=" + players.size() + "/" + maxSize);
+  }
+
+  @VisibleForTesting
+  public int getMaxSize() {
+    return maxSize;
+  }
+}
@@ -19,6 +19,7 @@ package com.google.android.setupdesign.view;
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Matrix;
 import android.graphics.SurfaceTexture;
 import android.graphics.drawable.Animatable;
 import android.media.MediaPlayer;
@@ -26,7 +27,6 @@ import android.media.MediaPlayer.OnErrorListener;
 import android.media.MediaPlayer.OnInfoListener;
 import android.media.MediaPlayer.OnPreparedListener;
 import android.media.MediaPlayer.OnSeekCompleteListener;
-import android.net.Uri;
 import android.os.Build.VERSION_CODES;
 import android.util.AttributeSet;
 import android.util.Log;
@@ -34,11 +34,13 @@ import android.view.Surface;
 import android.view.TextureView;
 import android.view.TextureView.SurfaceTextureListener;
 import android.view.View;
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RawRes;
 import androidx.annotation.VisibleForTesting;
 import com.google.android.setupcompat.util.BuildCompatUtils;
 import com.google.android.setupdesign.R;
+import com.google.android.setupdesign.util.MemoryTrimHelper;
 import java.io.IOException;
 
 /**
@@ -49,6 +51,17 @@ import java.io.IOException;
  * video. Optionally, {@code app:sudLoopStartMs} can be used to specify which part of the video it
  * should loop back to
  *
+ * <p>The view is measured to the aspect ratio of the video, which is only known once the video is
+ * prepared. To avoid relayout when the video is loaded, the dimensions of the video can be declared
+ * up front using {@code app:sudVideoWidth} and {@code app:sudVideoHeight}, or {@link
+ * #setVideoSize(int, int)}. If the actual video size differs from the declared size, the video is
+ * scaled to fit inside the view using the texture transform instead of requesting a new layout.
+ *
+ * <p>Playback is delegated to an {@link IllustrationPlayer}, which is a {@link MediaPlayer} by
+ * default. Short looped illustrations can instead be declared as an {@code <animation-list>}
+ * drawable and played from memory by setting {@code app:sudIllustrationPlayer="frame_sequence"}, or
+ * a custom backend can be set using {@link #setIllustrationPlayerFactory}.
+ *
  * <p>For optimal file size, use avconv or other video compression tool to remove the unused audio
  * track and reduce the size of your video asset: avconv -i [input file] -vcodec h264 -crf 20 -an
  * [output_file]
@@ -64,19 +77,68 @@ public class IllustrationVideoView extends TextureView
 
   private static final String TAG = "IllustrationVideoView";
 
+  /** Maximum number of idle prepared players kept around for reuse across views. */
+  private static final int MAX_POOLED_PLAYERS = 2;
+
+  private static final int PLAYER_MEDIA_PLAYER = 0;
+  private static final int PLAYER_FRAME_SEQUENCE = 1;
+
+  private static final IllustrationPlayerPool<IllustrationPlayer> playerPool =
+      new IllustrationPlayerPool<>(
+          MAX_POOLED_PLAYERS, IllustrationPlayer::release, IllustrationPlayer::getRetainedBytes);
+
+  static {
+    MemoryTrimHelper.register("IllustrationVideoView", playerPool);
+  }
+
   private float aspectRatio = 1.0f; // initial guess until we know
 
+  /** Whether {@link #aspectRatio} has been declared up front and should not follow the video. */
+  private boolean hasDeclaredVideoSize = false;
+
+  /** The aspect ratio (height / width) of the video reported by the player, or 0 if unknown. */
+  private float videoAspectRatio = 0.0f;
+
+  private final Matrix videoTransform = new Matrix();
+
+  /**
+   * The underlying media player of {@link #player} if it is backed by {@link MediaPlayer}, or null
+   * otherwise.
+   */
   @Nullable // Can be null when media player fails to initialize
   protected MediaPlayer mediaPlayer;
 
+  @Nullable private IllustrationPlayer player;
+
+  private IllustrationPlayer.Factory playerFactory = MediaPlayerIllustrationPlayer.FACTORY;
+
+  /** The type of the players created by {@link #playerFactory}, part of the pool key. */
+  private String playerType = MediaPlayerIllustrationPlayer.TYPE;
+
+  private final IllustrationPlayer.Listener playerListener = new PlayerListener();
+
   private @RawRes int videoResId = 0;
 
   private String videoResPackageName;
 
+  /** The pool key of the video {@link #player} was prepared for. */
+  @Nullable private String playerKey;
+
+  private boolean playerPoolingEnabled = true;
+
   @VisibleForTesting Surface surface;
 
   private boolean prepared;
 
+  /** Whether the current player reported rendering start since it was attached to this view. */
+  private boolean renderingStarted;
+
+  /**
+   * Whether the player reattached from the pool has not rendered a frame onto the current surface
+   * yet. The view stays hidden until the seek issued by {@link #reattachPlayer} completes.
+   */
+  private boolean awaitingReattachedFrame;
+
   private boolean shouldPauseVideoWhenFinished = true;
 
   /**
@@ -113,6 +175,19 @@ public class IllustrationVideoView extends TextureView
       setPauseVideoWhenFinished(shouldPauseVideo);
     }
 
+    final int declaredWidth = a.getInt(R.styleable.SudIllustrationVideoView_sudVideoWidth, 0);
+    final int declaredHeight = a.getInt(R.styleable.SudIllustrationVideoView_sudVideoHeight, 0);
+    if (declaredWidth > 0 && declaredHeight > 0) {
+      setVideoSize(declaredWidth, declaredHeight);
+    }
+
+    final int playerType =
+        a.getInt(R.styleable.SudIllustrationVideoView_sudIllustrationPlayer, PLAYER_MEDIA_PLAYER);
+    if (playerType == PLAYER_FRAME_SEQUENCE) {
+      playerFactory = FrameSequenceIllustrationPlayer.FACTORY;
+      this.playerType = FrameSequenceIllustrationPlayer.TYPE;
+    }
+
     a.recycle();
     setVideoResource(videoResId);
 
@@ -143,6 +218,56 @@ public class IllustrationVideoView extends TextureView
         MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
   }
 
+  @Override
+  protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+    super.onSizeChanged(w, h, oldw, oldh);
+    updateVideoTransform();
+  }
+
+  /**
+   * Declares the dimensions of the video, so that the view can be measured to its final size before
+   * the video is loaded. Once set, the measured size no longer follows the size reported by the
+   * player; a mismatching video is scaled to fit inside the view instead.
+   *
+   * @param width The width of the video in pixels.
+   * @param height The height of the video in pixels.
+   */
+  public void setVideoSize(int width, int height) {
+    if (width <= 0 || height <= 0) {
+      Log.w(TAG, "Ignoring invalid video size=" + width + "x" + height);
+      return;
+    }
+    hasDeclaredVideoSize = true;
+    float aspectRatio = (float) height / width;
+    if (Float.compare(this.aspectRatio, aspectRatio) != 0) {
+      this.aspectRatio = aspectRatio;
+      requestLayout();
+    }
+    updateVideoTransform();
+  }
+
+  /**
+   * Scales the video content to fit inside the view when the aspect ratio of the video differs
+   * from the aspect ratio the view was measured with.
+   */
+  private void updateVideoTransform() {
+    if (!hasDeclaredVideoSize) {
+      return;
+    }
+    final int width = getWidth();
+    final int height = getHeight();
+    videoTransform.reset();
+    if (videoAspectRatio > 0 && width > 0 && height > 0) {
+      final float viewAspectRatio = (float) height / width;
+      if (viewAspectRatio > videoAspectRatio) {
+        videoTransform.setScale(1f, videoAspectRatio / viewAspectRatio, width / 2f, height / 2f);
+      } else {
+        videoTransform.setScale(viewAspectRatio / videoAspectRatio, 1f, width / 2f, height / 2f);
+      }
+    }
+    setTransform(videoTransform);
+  }
+
   /**
    * Set the video and video package name to be played by this view.
    *
@@ -198,6 +323,47 @@ public class IllustrationVideoView extends TextureView
     shouldPauseVideoWhenFinished = paused;
   }
 
+  /**
+   * Sets whether this view shares prepared players with other instances showing the same video.
+   * When enabled (the default), the player is returned to a process-wide pool when the surface goes
+   * away, and a prepared player for the same video is reattached to the new surface instead of
+   * preparing the video again.
+   */
+  public void setPlayerPoolingEnabled(boolean enabled) {
+    playerPoolingEnabled = enabled;
+  }
+
+  /** Releases all idle players kept for reuse by {@link IllustrationVideoView} instances. */
+  public static void trimPlayerPool() {
+    playerPool.clear();
+  }
+
+  @VisibleForTesting
+  static IllustrationPlayerPool<IllustrationPlayer> getPlayerPool() {
+    return playerPool;
+  }
+
+  /**
+   * Sets the factory used to create the player backend of this view. The change takes effect the
+   * next time a player is created, for example when the video resource changes.
+   *
+   * @param playerType The type of the players created by {@code factory}, for example {@link
+   *     MediaPlayerIllustrationPlayer#TYPE}. Pooled players are only reused by views with the same
+   *     player type.
+   * @param factory The factory creating the players.
+   */
+  public void setIllustrationPlayerFactory(
+      @NonNull String playerType, @NonNull IllustrationPlayer.Factory factory) {
+    this.playerType = playerType;
+    playerFactory = factory;
+  }
+
+  /** Returns the player currently attached to this view, or null if there is none. */
+  @Nullable
+  public IllustrationPlayer getIllustrationPlayer() {
+    return player;
+  }
+
   @Override
   public void onWindowFocusChanged(boolean hasWindowFocus) {
     super.onWindowFocusChanged(hasWindowFocus);
@@ -210,32 +376,99 @@ public class IllustrationVideoView extends TextureView
 
   /**
    * Creates a media player for the current URI. The media player will be started immediately if the
-   * view's window is visible. If there is an existing media player, it will be released.
+   * view's window is visible. If there is an existing media player, it will be released, or
+   * returned to the player pool if it has been prepared.
+   *
+   * <p>If the player pool holds a prepared player for the current video, that player is attached to
+   * the current surface instead of creating and preparing a new one.
    */
   protected void createMediaPlayer() {
-    if (mediaPlayer != null) {
-      mediaPlayer.release();
+    if (player != null) {
+      recyclePlayer();
     }
     if (surface == null || videoResId == 0) {
       return;
     }
 
-    mediaPlayer = new MediaPlayer();
+    playerKey = IllustrationPlayerPool.keyFor(playerType, videoResPackageName, videoResId);
+    IllustrationPlayer pooledPlayer = playerPoolingEnabled ? playerPool.acquire(playerKey) : null;
+    if (pooledPlayer != null && reattachPlayer(pooledPlayer)) {
+      return;
+    }
 
-    mediaPlayer.setSurface(surface);
-    mediaPlayer.setOnPreparedListener(this);
-    mediaPlayer.setOnSeekCompleteListener(this);
-    mediaPlayer.setOnInfoListener(this);
-    mediaPlayer.setOnErrorListener(this);
+    attachPlayer(playerFactory.create(getContext()));
 
     setVideoResourceInternal(videoResId, videoResPackageName);
   }
 
+  private void attachPlayer(IllustrationPlayer player) {
+    this.player = player;
+    mediaPlayer =
+        player instanceof MediaPlayerIllustrationPlayer
+            ? ((MediaPlayerIllustrationPlayer) player).getMediaPlayer()
+            : null;
+    renderingStarted = false;
+    awaitingReattachedFrame = false;
+    player.setListener(playerListener);
+    player.setSurface(surface);
+  }
+
+  /**
+   * Attaches a prepared player taken from the pool to the current surface. Returns false if the
+   * player could not be reused, in which case it has been released.
+   */
+  private boolean reattachPlayer(IllustrationPlayer pooledPlayer) {
+    try {
+      attachPlayer(pooledPlayer);
+    } catch (IllegalStateException e) {
+      Log.w(TAG, "Unable to reuse pooled player", e);
+      player = null;
+      mediaPlayer = null;
+      pooledPlayer.release();
+      return false;
+    }
+    playerListener.onPrepared(pooledPlayer);
+    if (!renderingStarted) {
+      // The player has already rendered frames before, so the rendering start event will not
+      // necessarily be sent again for the new surface. Seeking renders the current frame onto the
+      // new surface, and the view is revealed once the seek completes.
+      awaitingReattachedFrame = true;
+      pooledPlayer.seekTo(pooledPlayer.getCurrentPosition());
+    }
+    return true;
+  }
+
+  /**
+   * Detaches the current player from this view. A prepared player is paused and returned to the
+   * player pool so that it can be reused, otherwise it is released.
+   */
+  private void recyclePlayer() {
+    IllustrationPlayer oldPlayer = player;
+    boolean wasPrepared = prepared;
+    player = null;
+    mediaPlayer = null;
+    prepared = false;
+
+    if (playerPoolingEnabled && wasPrepared && playerKey != null) {
+      try {
+        if (oldPlayer.isPlaying()) {
+          oldPlayer.pause();
+        }
+        oldPlayer.setSurface(null);
+        oldPlayer.setListener(null);
+        playerPool.offer(playerKey, oldPlayer);
+        return;
+      } catch (IllegalStateException e) {
+        Log.w(TAG, "Unable to return player to the pool", e);
+      }
+    }
+    oldPlayer.release();
+  }
+
   private void setVideoResourceInternal(@RawRes int videoRes, String videoResPackageName) {
-    Uri uri = Uri.parse("android.resource://" + videoResPackageName + "/" + videoRes);
     try {
-      mediaPlayer.setDataSource(getContext(), uri, null);
-      mediaPlayer.prepareAsync();
+      player.setDataSource(getContext(), videoResPackageName, videoRes);
+      player.prepareAsync();
     } catch (IOException e) {
       Log.e(TAG, "Unable to set video data source: " + videoRes, e);
     }
@@ -287,13 +520,13 @@ public class IllustrationVideoView extends TextureView
 
   /**
    * Release any resources used by this view. This is automatically called in
-   * onSurfaceTextureDestroyed so in most cases you don't have to call this.
+   * onSurfaceTextureDestroyed so in most cases you don't have to call this. A prepared media player
+   * is kept in the player pool for reuse unless pooling is disabled, see {@link
+   * #setPlayerPoolingEnabled(boolean)}.
    */
   public void release() {
-    if (mediaPlayer != null) {
-      mediaPlayer.release();
-      mediaPlayer = null;
-      prepared = false;
+    if (player != null) {
+      recyclePlayer();
     }
     if (surface != null) {
       surface.release();
@@ -346,16 +579,16 @@ public class IllustrationVideoView extends TextureView
 
   @Override
   public void start() {
-    if (prepared && mediaPlayer != null && !mediaPlayer.isPlaying()) {
-      mediaPlayer.start();
+    if (prepared && player != null && !player.isPlaying()) {
+      player.start();
     }
   }
 
   @Override
   public void stop() {
     if (shouldPauseVideoWhenFinished) {
-      if (prepared && mediaPlayer != null) {
-        mediaPlayer.pause();
+      if (prepared && player != null) {
+        player.pause();
       }
     } else {
       // do not pause the media player.
@@ -364,7 +597,7 @@ public class IllustrationVideoView extends TextureView
 
   @Override
   public boolean isRunning() {
-    return mediaPlayer != null && mediaPlayer.isPlaying();
+    return player != null && player.isPlaying();
   }
 
   /* MediaPlayer callbacks */
@@ -380,16 +613,31 @@ public class IllustrationVideoView extends TextureView
 
   @Override
   public void onPrepared(MediaPlayer mp) {
+    onPlayerPrepared();
+  }
+
+  private void onPlayerPrepared() {
+    if (player == null) {
+      return;
+    }
     prepared = true;
-    mp.setLooping(shouldLoop());
+    player.setLooping(shouldLoop());
 
+    int videoWidth = player.getVideoWidth();
+    int videoHeight = player.getVideoHeight();
     float aspectRatio = 0.0f;
-    if (mp.getVideoWidth() > 0 && mp.getVideoHeight() > 0) {
-      aspectRatio = (float) mp.getVideoHeight() / mp.getVideoWidth();
+    if (videoWidth > 0 && videoHeight > 0) {
+      aspectRatio = (float) videoHeight / videoWidth;
     } else {
-      Log.w(TAG, "Unexpected video size=" + mp.getVideoWidth() + "x" + mp.getVideoHeight());
+      Log.w(TAG, "Unexpected video size=" + videoWidth + "x" + videoHeight);
     }
-    if (Float.compare(this.aspectRatio, aspectRatio) != 0) {
+    if (hasDeclaredVideoSize) {
+      // The view has already been measured to its final size, only the content needs adjusting.
+      if (Float.compare(videoAspectRatio, aspectRatio) != 0) {
+        videoAspectRatio = aspectRatio;
+        updateVideoTransform();
+      }
+    } else if (Float.compare(this.aspectRatio, aspectRatio) != 0) {
       this.aspectRatio = aspectRatio;
       requestLayout();
     }
@@ -400,15 +648,19 @@ public class IllustrationVideoView extends TextureView
 
   @Override
   public void onSeekComplete(MediaPlayer mp) {
-    if (isPrepared()) {
-      mp.start();
+    onPlayerSeekComplete();
+  }
+
+  private void onPlayerSeekComplete() {
+    if (isPrepared() && player != null) {
+      player.start();
     } else {
       Log.e(TAG, "Seek complete but media player not prepared");
     }
   }
 
   public int getCurrentPosition() {
-    return mediaPlayer == null ? 0 : mediaPlayer.getCurrentPosition();
+    return player == null ? 0 : player.getCurrentPosition();
   }
 
   protected boolean isPrepared() {
@@ -428,8 +680,8 @@ public class IllustrationVideoView extends TextureView
    * @throws IllegalStateException if the internal player engine has not been initialized
    */
   public void seekTo(int milliseconds) {
-    if (mediaPlayer != null) {
-      mediaPlayer.seekTo(milliseconds);
+    if (player != null) {
+      player.seekTo(milliseconds);
     }
   }
 
@@ -441,4 +693,54 @@ public class IllustrationVideoView extends TextureView
   protected float getAspectRatio() {
     return aspectRatio;
   }
+
+  /**
+   * Dispatches player events to this view. Events from a {@link MediaPlayer} backend are routed
+   * through the {@link MediaPlayer} listener methods of this view so that subclasses overriding
+   * them keep working.
+   */
+  private class PlayerListener implements IllustrationPlayer.Listener {
+
+    @Override
+    public void onPrepared(@NonNull IllustrationPlayer source) {
+      if (mediaPlayer != null) {
+        IllustrationVideoView.this.onPrepared(mediaPlayer);
+      } else {
+        onPlayerPrepared();
+      }
+    }
+
+    @Override
+    public void onRenderingStart(@NonNull IllustrationPlayer source) {
+      renderingStarted = true;
+      awaitingReattachedFrame = false;
+      if (mediaPlayer != null) {
+        onInfo(mediaPlayer, MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START, 0);
+      } else {
+        setIsMediaPlayerLoading(false);
+        IllustrationVideoView.this.onRenderingStart();
+      }
+    }
+
+    @Override
+    public void onSeekComplete(@NonNull IllustrationPlayer source) {
+      if (awaitingReattachedFrame) {
+        onRenderingStart(source);
+      }
+      if (mediaPlayer != null) {
+        IllustrationVideoView.this.onSeekComplete(mediaPlayer);
+      } else {
+        onPlayerSeekComplete();
+      }
+    }
+
+    @Override
+    public boolean onError(@NonNull IllustrationPlayer source, int what, int extra) {
+      if (mediaPlayer != null) {
+        return IllustrationVideoView.this.onError(mediaPlayer, what, extra);
+      }
+      Log.w(TAG, "Player error. what=" + what + " extra=" + extra);
+      return false;
+    }
+  }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.setupdesign.view;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.media.MediaPlayer;
+import android.media.MediaPlayer.OnErrorListener;
+import android.media.MediaPlayer.OnInfoListener;
+import android.media.MediaPlayer.OnPreparedListener;
+import android.media.MediaPlayer.OnSeekCompleteListener;
+import android.net.Uri;
+import android.view.Surface;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.IOException;
+
+/** An {@link IllustrationPlayer} backed by {@link MediaPlayer}, used for MP4 video resources. */
+public class MediaPlayerIllustrationPlayer
+    implements IllustrationPlayer,
+        OnPreparedListener,
+        OnSeekCompleteListener,
+        OnInfoListener,
+        OnErrorListener {
+
+  /** The player type of {@link #FACTORY}, under which its players are pooled. */
+  public static final String TYPE = "media_player";
+
+  /** Factory creating {@link MediaPlayerIllustrationPlayer} instances. */
+  public static final Factory FACTORY = context -> new MediaPlayerIllustrationPlayer();
+
+  private final MediaPlayer mediaPlayer;
+
+  @Nullable private Listener listener;
+
+  public MediaPlayerIllustrationPlayer() {
+    this(new MediaPlayer());
+  }
+
+  public MediaPlayerIllustrationPlayer(@NonNull MediaPlayer mediaPlayer) {
+    this.mediaPlayer = mediaPlayer;
+    mediaPlayer.setOnPreparedListener(this);
+    mediaPlayer.setOnSeekCompleteListener(this);
+    mediaPlayer.setOnInfoListener(this);
+    mediaPlayer.setOnErrorListener(this);
+  }
+
+  /** Returns the underlying {@link MediaPlayer}. */
+  @NonNull
+  public MediaPlayer getMediaPlayer() {
+    return mediaPlayer;
+  }
+
+  @Override
+  public void setListener(@Nullable Listener listener) {
+    this.listener = listener;
+  }
+
+  @Override
+  public void setSurface(@Nullable Surface surface) {
+    mediaPlayer.setSurface(surface);
+  }
+
+  @Override
+  public void setDataSource(@NonNull Context context, @NonNull String packageName, int resId)
+      throws IOException {
+    Uri uri =
+        new Uri.Builder()
+            .scheme(ContentResolver.SCHEME_ANDROID_RESOURCE)
+            .authority(packageName)
+            .appendPath(String.valueOf(resId))
+            .build();
+    mediaPlayer.setDataSource(context, uri, null);
+  }
+
+  @Override
+  public void prepareAsync() {
+    mediaPlayer.prepareAsync();
+  }
+
+  @Override
+  public void start() {
+    mediaPlayer.start();
+  }
+
+  @Override
+  public void pause() {
+    mediaPlayer.pause();
+  }
+
+  @Override
+  public boolean isPlaying() {
+    return mediaPlayer.isPlaying();
+  }
+
+  @Override
+  public void seekTo(int milliseconds) {
+    mediaPlayer.seekTo(milliseconds);
+  }
+
+  @Override
+  public int getCurrentPosition() {
+    return mediaPlayer.getCurrentPosition();
+  }
+
+  @Override
+  public int getVideoWidth() {
+    return mediaPlayer.getVideoWidth();
+  }
+
+  @Override
+  public int getVideoHeight() {
+    return mediaPlayer.getVideoHeight();
+  }
+
+  @Override
+  public void setLooping(boolean looping) {
+    mediaPlayer.setLooping(looping);
+  }
+
+  /**
+   * Returns the size of a single decoded frame in the YUV 4:2:0 format of video decoders. The
+   * decoder holds a few frames in native memory, so this is a lower bound.
+   */
+  @Override
+  public long getRetainedBytes() {
+    return (long) mediaPlayer.getVideoWidth() * mediaPlayer.getVideoHeight() * 3 / 2;
+  }
+
+  @Override
+  public void release() {
+    listener = null;
+    mediaPlayer.release();
+  }
+
+  /* MediaPlayer callbacks */
+
+  @Override
+  public void onPrepared(MediaPlayer mp) {
+    if (listener != null) {
+      listener.onPrepared(this);
+    }
+  }
+
+  @Override
+  public boolean onInfo(MediaPlayer mp, int what, int extra) {
+    if (what == MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START && listener != null) {
+      listener.onRenderingStart(this);
+    }
+    return false;
+  }
+
+  @Override
+  public void onSeekComplete(MediaPlayer mp) {
+    if (listener != null) {
+      listener.onSeekComplete(this);
+    }
+  }
+
+  @Override
+  public boolean onError(MediaPlayer mp, int what, int extra) {
+    return listener != null && listener.onError(this, what, extra);
+  }
+}
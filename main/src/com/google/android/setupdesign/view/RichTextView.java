@@ -19,6 +19,7 @@ package com.google.android.setupdesign.view;
 import android.annotation.SuppressLint;
 import android.annotation.TargetApi;
 import android.content.Context;
+import android.content.res.Resources;
 import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
 import android.os.Build.VERSION;
@@ -27,20 +28,28 @@ import androidx.appcompat.widget.AppCompatTextView;
 import android.text.Annotation;
 import android.text.SpannableString;
 import android.text.Spanned;
+import android.text.SpannedString;
 import android.text.method.MovementMethod;
 import android.text.style.ClickableSpan;
 import android.text.style.TextAppearanceSpan;
 import android.text.style.TypefaceSpan;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.util.LruCache;
 import android.view.MotionEvent;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.core.view.ViewCompat;
 import com.google.android.setupdesign.accessibility.LinkAccessibilityHelper;
 import com.google.android.setupdesign.span.LinkSpan;
 import com.google.android.setupdesign.span.LinkSpan.OnLinkClickListener;
 import com.google.android.setupdesign.span.SpanHelper;
+import com.google.android.setupdesign.util.PrecomputedTextHelper;
+import com.google.android.setupdesign.util.TrimmableLruCache;
 import com.google.android.setupdesign.view.TouchableMovementMethod.TouchableLinkMovementMethod;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
 
 /**
  * An extension of TextView that automatically replaces the annotation tags as specified in {@link
@@ -55,8 +64,33 @@ public class RichTextView extends AppCompatTextView implements OnLinkClickListen
   private static final String ANNOTATION_LINK = "link";
   private static final String ANNOTATION_TEXT_APPEARANCE = "textAppearance";
 
+  private static final int RICH_TEXT_CACHE_SIZE = 32;
+
   @VisibleForTesting static Typeface spanTypeface;
 
+  /**
+   * Processed rich text keyed by the identity of the source text and the theme it was processed
+   * with. Styled strings loaded from resources are cached by the framework, so setting the same
+   * string resource again yields the same source instance.
+   *
+   * <p>Copies of a cached entry share its span objects. This is safe because the spans created by
+   * {@link #getRichText} are immutable: {@link LinkSpan} only holds its ID and finds the listener
+   * through the view it is clicked in, and {@link TextAppearanceSpan} and {@link TypefaceSpan}
+   * resolve their style when they are created and hold no reference to a context or view.
+   */
+  private static final LruCache<RichTextKey, SpannableString> richTextCache =
+      new TrimmableLruCache<RichTextKey, SpannableString>("RichTextView", RICH_TEXT_CACHE_SIZE) {
+        @Override
+        protected long estimateBytes(@NonNull RichTextKey key, @NonNull SpannableString value) {
+          // The characters, and the span, start, end and flags recorded for each span.
+          final int spanCount = value.getSpans(0, value.length(), Object.class).length;
+          return value.length() * 2L + spanCount * 16L;
+        }
+      };
+
+  /** Style resource IDs of text appearance annotations, keyed by package and style name. */
+  private static final HashMap<String, Integer> textAppearanceStyleCache = new HashMap<>();
+
   /**
    * Replace &lt;annotation&gt; tags in strings to become their respective types. Currently 2 types
    * are supported:
@@ -67,21 +101,33 @@ public class RichTextView extends AppCompatTextView implements OnLinkClickListen
    *   <li>&lt;annotation textAppearance="TextAppearance.FooBar"&gt; will create a {@link
    *       android.text.style.TextAppearanceSpan} with @style/TextAppearance.FooBar
    * </ol>
+   *
+   * <p>If {@code text} is an immutable {@link SpannedString}, such as the text returned by {@link
+   * Resources#getText(int)}, the result is cached for that text instance and the theme of {@code
+   * context}, so processing the same text again only copies the cached result.
    */
   @TargetApi(28)
   @SuppressLint("NewApi")
   public static CharSequence getRichText(Context context, CharSequence text) {
     if (text instanceof Spanned) {
+      // Only immutable text, such as the SpannedString returned by Resources#getText, is cached.
+      // Mutable spannables can be edited in place and passed again, so they are always processed.
+      final RichTextKey cacheKey =
+          text instanceof SpannedString ? new RichTextKey(text, context.getTheme()) : null;
+      final SpannableString cached = cacheKey != null ? richTextCache.get(cacheKey) : null;
+      if (cached != null) {
+        // A new spannable, so that selection and spans added by one view do not leak into others.
+        // The spans of the cached entry are immutable and shared, see richTextCache.
+        return new SpannableString(cached);
+      }
+
       final SpannableString spannable = new SpannableString(text);
       final Annotation[] spans = spannable.getSpans(0, spannable.length(), Annotation.class);
       for (Annotation span : spans) {
         final String key = span.getKey();
         if (ANNOTATION_TEXT_APPEARANCE.equals(key)) {
           String textAppearance = span.getValue();
-          final int style =
-              context
-                  .getResources()
-                  .getIdentifier(textAppearance, "style", context.getPackageName());
+          final int style = getTextAppearanceStyle(context, textAppearance);
           if (style == 0) {
             Log.w(TAG, "Cannot find resource: " + style);
           }
@@ -96,11 +142,38 @@ public class RichTextView extends AppCompatTextView implements OnLinkClickListen
           SpanHelper.replaceSpan(spannable, span, link, typefaceSpan);
         }
       }
+      if (cacheKey != null && spans.length > 0) {
+        // Text without annotations, such as the already processed text passed back by TextView,
+        // is cheap to copy and not worth a cache entry.
+        richTextCache.put(cacheKey, new SpannableString(spannable));
+      }
       return spannable;
     }
     return text;
   }
 
+  private static int getTextAppearanceStyle(Context context, String textAppearance) {
+    final String packageName = context.getPackageName();
+    final String cacheKey = packageName + ":" + textAppearance;
+    synchronized (textAppearanceStyleCache) {
+      Integer style = textAppearanceStyleCache.get(cacheKey);
+      if (style == null) {
+        style = context.getResources().getIdentifier(textAppearance, "style", packageName);
+        textAppearanceStyleCache.put(cacheKey, style);
+      }
+      return style;
+    }
+  }
+
+  /** Clears the cached results of {@link #getRichText(Context, CharSequence)}. */
+  @VisibleForTesting
+  public static void clearRichTextCache() {
+    richTextCache.evictAll();
+    synchronized (textAppearanceStyleCache) {
+      textAppearanceStyleCache.clear();
+    }
+  }
+
   /* non-static section */
 
   private LinkAccessibilityHelper accessibilityHelper;
@@ -133,12 +206,19 @@ public class RichTextView extends AppCompatTextView implements OnLinkClickListen
    */
   @TargetApi(VERSION_CODES.P)
   public void setSpanTypeface(Typeface typeface) {
-    spanTypeface = typeface;
+    if (spanTypeface != typeface) {
+      spanTypeface = typeface;
+      // Cached rich text holds spans created with the previous typeface.
+      richTextCache.evictAll();
+    }
   }
 
   @Override
   public void setText(CharSequence text, BufferType type) {
-    text = getRichText(getContext(), text);
+    if (!PrecomputedTextHelper.isPrecomputedText(text)) {
+      // Precomputed text has already been processed, see PrecomputedTextHelper#setText.
+      text = getRichText(getContext(), text);
+    }
     // Set text first before doing anything else because setMovementMethod internally calls
     // setText. This in turn ends up calling this method with mText as the first parameter
     super.setText(text, type);
@@ -240,4 +320,42 @@ public class RichTextView extends AppCompatTextView implements OnLinkClickListen
     }
     return false;
   }
+
+  /**
+   * Cache key of {@link #richTextCache}. The source text and theme are compared by identity and
+   * only weakly referenced, so the cache does not keep them alive. Comparing the text by identity
+   * is only correct for immutable text, see {@link #getRichText(Context, CharSequence)}.
+   */
+  private static final class RichTextKey {
+    private final WeakReference<CharSequence> text;
+    private final WeakReference<Resources.Theme> theme;
+    private final int hashCode;
+
+    RichTextKey(CharSequence text, @Nullable Resources.Theme theme) {
+      this.text = new WeakReference<>(text);
+      this.theme = new WeakReference<>(theme);
+      this.hashCode = 31 * System.identityHashCode(text) + System.identityHashCode(theme);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof RichTextKey)) {
+        return false;
+      }
+      RichTextKey other = (RichTextKey) o;
+      CharSequence text = this.text.get();
+      return hashCode == other.hashCode
+          && text != null
+          && text == other.text.get()
+          && theme.get() == other.theme.get();
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
 }
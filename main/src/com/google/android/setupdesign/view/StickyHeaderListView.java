@@ -56,6 +56,15 @@ public class StickyHeaderListView extends ListView {
   private View stickyContainer;
   private int statusBarInset = 0;
   private final RectF stickyRect = new RectF();
+  private final StickyHeaderRenderer stickyRenderer = new StickyHeaderRenderer();
+
+  /**
+   * Number of headers and children when the sticky view was last searched, to avoid searching the
+   * whole list again on every layout.
+   */
+  private int stickySearchedHeaderCount = -1;
+
+  private int stickySearchedChildCount = -1;
 
   public StickyHeaderListView(Context context) {
     super(context);
@@ -92,14 +101,23 @@ public class StickyHeaderListView extends ListView {
   @Override
   protected void onLayout(boolean changed, int l, int t, int r, int b) {
     super.onLayout(changed, l, t, r, b);
-    if (sticky == null) {
+    if (sticky == null
+        && (getHeaderViewsCount() != stickySearchedHeaderCount
+            || getChildCount() != stickySearchedChildCount)) {
       updateStickyView();
     }
   }
 
+  /**
+   * Call this method when the "sticky" view has changed, so this view can update its internal
+   * states as well.
+   */
   public void updateStickyView() {
     sticky = findViewWithTag("sticky");
     stickyContainer = findViewWithTag("stickyContainer");
+    stickySearchedHeaderCount = getHeaderViewsCount();
+    stickySearchedChildCount = getChildCount();
+    stickyRenderer.invalidate();
   }
 
   @Override
@@ -131,10 +149,10 @@ public class StickyHeaderListView extends ListView {
             drawTarget.getWidth(),
             drawTarget.getHeight() - drawOffset + statusBarInset);
         canvas.translate(0, stickyRect.top);
-        canvas.clipRect(0, 0, drawTarget.getWidth(), drawTarget.getHeight());
-        drawTarget.draw(canvas);
+        stickyRenderer.draw(canvas, drawTarget);
       } else {
         stickyRect.setEmpty();
+        stickyRenderer.invalidate();
       }
       canvas.restoreToCount(saveCount);
     }
@@ -44,6 +44,10 @@ public class StickyHeaderRecyclerView extends HeaderRecyclerView {
   private View sticky;
   private int statusBarInset = 0;
   private final RectF stickyRect = new RectF();
+  private final StickyHeaderRenderer stickyRenderer = new StickyHeaderRenderer();
+
+  /** The header last searched for the sticky view, to avoid searching it again on every layout. */
+  private View stickySearchedHeader;
 
   public StickyHeaderRecyclerView(Context context) {
     super(context);
@@ -60,7 +64,7 @@ public class StickyHeaderRecyclerView extends HeaderRecyclerView {
   @Override
   protected void onLayout(boolean changed, int l, int t, int r, int b) {
     super.onLayout(changed, l, t, r, b);
-    if (sticky == null) {
+    if (sticky == null && getHeader() != stickySearchedHeader) {
       updateStickyView();
     }
     if (sticky != null) {
@@ -88,6 +92,8 @@ public class StickyHeaderRecyclerView extends HeaderRecyclerView {
     if (header != null) {
       sticky = header.findViewWithTag("sticky");
     }
+    stickySearchedHeader = header;
+    stickyRenderer.invalidate();
   }
 
   @Override
@@ -110,10 +116,10 @@ public class StickyHeaderRecyclerView extends HeaderRecyclerView {
             drawTarget.getWidth(),
             drawTarget.getHeight() - drawOffset + statusBarInset);
         canvas.translate(0, stickyRect.top);
-        canvas.clipRect(0, 0, drawTarget.getWidth(), drawTarget.getHeight());
-        drawTarget.draw(canvas);
+        stickyRenderer.draw(canvas, drawTarget);
       } else {
         stickyRect.setEmpty();
+        stickyRenderer.invalidate();
       }
       canvas.restoreToCount(saveCount);
     }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.setupdesign.view;
+
+import android.annotation.TargetApi;
+import android.graphics.Canvas;
+import android.graphics.RecordingCanvas;
+import android.graphics.RenderNode;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+import androidx.annotation.Nullable;
+
+/**
+ * Draws the sticky header of {@link StickyHeaderListView} and {@link StickyHeaderRecyclerView}
+ * while it is scrolled off.
+ *
+ * <p>Once the header is scrolled off it is detached from the list, so nothing else draws it. An
+ * invalidated view is still marked dirty while detached, but the invalidation no longer propagates
+ * to the header root. On Q and above with a hardware accelerated canvas, the header is therefore
+ * recorded into a {@link RenderNode} and the recording is replayed on subsequent frames, until any
+ * view of the header is dirty or the header is resized. In all other cases the header is drawn
+ * directly.
+ */
+class StickyHeaderRenderer {
+
+  /** The recorded header as a {@code RenderNode}. Typed as Object for pre-Q class loading. */
+  @Nullable private Object renderNode;
+
+  private boolean renderNodeValid = false;
+
+  /** Discards the recorded header, so it will be recorded again the next time it is drawn. */
+  void invalidate() {
+    renderNodeValid = false;
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && renderNode != null) {
+      ((RenderNode) renderNode).discardDisplayList();
+    }
+  }
+
+  /**
+   * Draws the given header at the origin of the canvas, clipped to the bounds of the header. The
+   * canvas is expected to be saved and restored by the caller.
+   */
+  void draw(Canvas canvas, View drawTarget) {
+    canvas.clipRect(0, 0, drawTarget.getWidth(), drawTarget.getHeight());
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+        && canvas.isHardwareAccelerated()
+        && !drawTarget.isShown()) {
+      drawRecorded(canvas, drawTarget);
+    } else {
+      // The header is (partially) drawn by the list as well, which resets its dirty state. A
+      // recording could become stale without notice, so don't keep it.
+      invalidate();
+      drawTarget.draw(canvas);
+    }
+  }
+
+  @TargetApi(Build.VERSION_CODES.Q)
+  private void drawRecorded(Canvas canvas, View drawTarget) {
+    if (renderNode == null) {
+      renderNode = new RenderNode("SudStickyHeader");
+    }
+    final RenderNode node = (RenderNode) renderNode;
+    final int width = drawTarget.getWidth();
+    final int height = drawTarget.getHeight();
+    if (!renderNodeValid
+        || !node.hasDisplayList()
+        || isSubtreeDirty(drawTarget)
+        || node.getWidth() != width
+        || node.getHeight() != height) {
+      node.setPosition(0, 0, width, height);
+      final RecordingCanvas recordingCanvas = node.beginRecording(width, height);
+      try {
+        // Drawing clears the dirty flags of the header and its descendants, so the next
+        // invalidation of any of them is noticed.
+        drawTarget.draw(recordingCanvas);
+      } finally {
+        node.endRecording();
+      }
+      renderNodeValid = true;
+    }
+    canvas.drawRenderNode(node);
+  }
+
+  /**
+   * Returns whether the given view or any of its visible descendants was invalidated since it was
+   * last drawn. Drawing the header clears the dirty flags of all the views drawn.
+   */
+  private static boolean isSubtreeDirty(View view) {
+    if (view.isDirty()) {
+      return true;
+    }
+    if (view instanceof ViewGroup) {
+      final ViewGroup group = (ViewGroup) view;
+      final int childCount = group.getChildCount();
+      for (int i = 0; i < childCount; i++) {
+        final View child = group.getChildAt(i);
+        if (child.getVisibility() == View.VISIBLE && isSubtreeDirty(child)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
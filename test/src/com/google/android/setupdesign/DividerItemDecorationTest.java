@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign;
+
+import static org.junit.Assert.assertEquals;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.view.View;
+import android.view.View.MeasureSpec;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.google.android.setupdesign.DividerItemDecoration.DividedViewHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class DividerItemDecorationTest {
+
+  private static final int WIDTH = 500;
+  private static final int HEIGHT = 1000;
+  private static final int ITEM_COUNT = 5;
+
+  private Activity activity;
+  private RecyclerView recyclerView;
+  private CountingDividerItemDecoration decoration;
+  private CountingDrawable divider;
+  private Bitmap bitmap;
+
+  @Before
+  public void setUp() {
+    activity = Robolectric.buildActivity(Activity.class).setup().get();
+    divider = new CountingDrawable();
+    decoration = new CountingDividerItemDecoration();
+    decoration.setDivider(divider);
+    decoration.setDividerHeight(2);
+    decoration.setCacheDividerDecisions(true);
+    recyclerView = new RecyclerView(activity);
+    recyclerView.setLayoutManager(new LinearLayoutManager(activity));
+    // Without change animations, the children are exactly the items laid out.
+    recyclerView.setItemAnimator(null);
+    recyclerView.addItemDecoration(decoration);
+    activity.setContentView(recyclerView);
+    bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+  }
+
+  @After
+  public void tearDown() {
+    bitmap.recycle();
+  }
+
+  @Test
+  public void draw_cached_shouldNotEvaluateDecisionsAgain() {
+    recyclerView.setAdapter(new DividedAdapter(true, true, true, true, true));
+    drawFrame();
+    decoration.decisionCount = 0;
+    divider.drawCount = 0;
+
+    drawFrame();
+
+    assertEquals(0, decoration.decisionCount);
+    assertEquals(ITEM_COUNT, divider.drawCount);
+  }
+
+  @Test
+  public void draw_afterAdapterNotify_shouldEvaluateDecisionsAgain() {
+    final DividedAdapter adapter = new DividedAdapter(true, true, true, true, true);
+    recyclerView.setAdapter(adapter);
+    drawFrame();
+
+    adapter.dividerAllowedBelow[1] = false;
+    adapter.notifyItemChanged(1);
+
+    assertDividerDrawCount(ITEM_COUNT - 1);
+  }
+
+  @Test
+  public void draw_withoutAdapterNotify_shouldKeepCachedDecisions() {
+    final DividedAdapter adapter = new DividedAdapter(true, true, true, true, true);
+    recyclerView.setAdapter(adapter);
+    drawFrame();
+
+    adapter.dividerAllowedBelow[1] = false;
+    recyclerView.requestLayout();
+
+    assertDividerDrawCount(ITEM_COUNT);
+  }
+
+  @Test
+  public void draw_shouldObserveAdapterOnce() {
+    final DividedAdapter adapter = new DividedAdapter(true, true, true, true, true);
+    recyclerView.setAdapter(adapter);
+
+    drawFrame();
+    drawFrame();
+
+    // One observer from the RecyclerView, and one from the decoration.
+    assertEquals(2, adapter.observerCount);
+  }
+
+  @Test
+  public void detach_shouldStopObservingAdapter() {
+    final DividedAdapter adapter = new DividedAdapter(true, true, true, true, true);
+    recyclerView.setAdapter(adapter);
+    drawFrame();
+
+    activity.setContentView(new FrameLayout(activity));
+
+    assertEquals(1, adapter.observerCount);
+  }
+
+  @Test
+  public void detach_thenReattach_shouldEvaluateDecisionsAgain() {
+    final DividedAdapter adapter = new DividedAdapter(true, true, true, true, true);
+    recyclerView.setAdapter(adapter);
+    drawFrame();
+    activity.setContentView(new FrameLayout(activity));
+    // Changed while detached and not observed.
+    adapter.dividerAllowedBelow[1] = false;
+
+    activity.setContentView(recyclerView);
+
+    assertDividerDrawCount(ITEM_COUNT - 1);
+    assertEquals(2, adapter.observerCount);
+  }
+
+  @Test
+  public void swapAdapter_shouldObserveNewAdapter() {
+    final DividedAdapter oldAdapter = new DividedAdapter(true, true, true, true, true);
+    recyclerView.setAdapter(oldAdapter);
+    drawFrame();
+    final DividedAdapter newAdapter = new DividedAdapter(true, false, true, false, true);
+
+    recyclerView.setAdapter(newAdapter);
+
+    assertDividerDrawCount(3);
+    assertEquals(0, oldAdapter.observerCount);
+    assertEquals(2, newAdapter.observerCount);
+
+    newAdapter.dividerAllowedBelow[0] = false;
+    newAdapter.notifyItemChanged(0);
+    assertDividerDrawCount(2);
+  }
+
+  @Test
+  public void removeItemDecoration_thenNotify_shouldStopObservingAdapter() {
+    final DividedAdapter adapter = new DividedAdapter(true, true, true, true, true);
+    recyclerView.setAdapter(adapter);
+    drawFrame();
+
+    recyclerView.removeItemDecoration(decoration);
+    adapter.notifyDataSetChanged();
+
+    assertEquals(1, adapter.observerCount);
+  }
+
+  private void assertDividerDrawCount(int expected) {
+    divider.drawCount = 0;
+    drawFrame();
+    assertEquals(expected, divider.drawCount);
+  }
+
+  /** Lays out the RecyclerView if requested, and draws it. */
+  private void drawFrame() {
+    if (recyclerView.isLayoutRequested()) {
+      recyclerView.measure(
+          MeasureSpec.makeMeasureSpec(WIDTH, MeasureSpec.EXACTLY),
+          MeasureSpec.makeMeasureSpec(HEIGHT, MeasureSpec.EXACTLY));
+      recyclerView.layout(0, 0, WIDTH, HEIGHT);
+    }
+    recyclerView.draw(new Canvas(bitmap));
+  }
+
+  private static class CountingDividerItemDecoration extends DividerItemDecoration {
+
+    private int decisionCount = 0;
+
+    @Override
+    protected boolean shouldDrawDividerBelow(View view, RecyclerView parent) {
+      decisionCount++;
+      return super.shouldDrawDividerBelow(view, parent);
+    }
+  }
+
+  private static class CountingDrawable extends ColorDrawable {
+
+    private int drawCount = 0;
+
+    CountingDrawable() {
+      super(Color.BLACK);
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+      drawCount++;
+      super.draw(canvas);
+    }
+  }
+
+  /** Adapter whose items allow a divider below as given, and never above. */
+  private static class DividedAdapter extends RecyclerView.Adapter<DividedViewHolderImpl> {
+
+    private final boolean[] dividerAllowedBelow;
+    private int observerCount = 0;
+
+    DividedAdapter(boolean... dividerAllowedBelow) {
+      this.dividerAllowedBelow = dividerAllowedBelow;
+    }
+
+    @Override
+    public DividedViewHolderImpl onCreateViewHolder(ViewGroup parent, int viewType) {
+      final View view = new View(parent.getContext());
+      view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 100));
+      return new DividedViewHolderImpl(view);
+    }
+
+    @Override
+    public void onBindViewHolder(DividedViewHolderImpl holder, int position) {
+      holder.adapter = this;
+    }
+
+    @Override
+    public int getItemCount() {
+      return dividerAllowedBelow.length;
+    }
+
+    @Override
+    public void registerAdapterDataObserver(RecyclerView.AdapterDataObserver observer) {
+      super.registerAdapterDataObserver(observer);
+      observerCount++;
+    }
+
+    @Override
+    public void unregisterAdapterDataObserver(RecyclerView.AdapterDataObserver observer) {
+      super.unregisterAdapterDataObserver(observer);
+      observerCount--;
+    }
+  }
+
+  private static class DividedViewHolderImpl extends RecyclerView.ViewHolder
+      implements DividedViewHolder {
+
+    private DividedAdapter adapter;
+
+    DividedViewHolderImpl(View itemView) {
+      super(itemView);
+    }
+
+    @Override
+    public boolean isDividerAllowedAbove() {
+      return false;
+    }
+
+    @Override
+    public boolean isDividerAllowedBelow() {
+      // Reads the current data, so that decisions only change when they are evaluated again.
+      return adapter.dividerAllowedBelow[getLayoutPosition()];
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.content.Context;
+import android.view.ContextThemeWrapper;
+import com.google.android.setupdesign.util.LayoutPartnerConfigs;
+import java.util.ArrayList;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class GlifLayoutTest {
+
+  /**
+   * The partner configs returned by {@link RecordingGlifListLayout#getPartnerConfigs()}, in order.
+   * Static since the layout queries them before its own fields are initialized.
+   */
+  private static final ArrayList<LayoutPartnerConfigs> returnedPartnerConfigs = new ArrayList<>();
+
+  private Activity activity;
+  private Context context;
+
+  @Before
+  public void setUp() {
+    activity = Robolectric.buildActivity(Activity.class).setup().get();
+    context = new ContextThemeWrapper(activity, R.style.SudThemeGlif_Light);
+    returnedPartnerConfigs.clear();
+  }
+
+  @Test
+  public void getPartnerConfigs_constructingSubclass_shouldShareInstance() {
+    final RecordingGlifListLayout layout = new RecordingGlifListLayout(context);
+
+    // Both GlifLayout and GlifListLayout update the landscape middle spacing when initialized.
+    assertTrue(returnedPartnerConfigs.size() >= 2);
+    for (LayoutPartnerConfigs partnerConfigs : returnedPartnerConfigs) {
+      assertSame(returnedPartnerConfigs.get(0), partnerConfigs);
+    }
+    assertSame(returnedPartnerConfigs.get(0), layout.getPartnerConfigs());
+  }
+
+  @Test
+  public void getPartnerConfigs_duringFinishInflate_shouldShareInstance() {
+    final RecordingGlifListLayout layout = new RecordingGlifListLayout(context);
+    final LayoutPartnerConfigs constructing = layout.getPartnerConfigs();
+
+    layout.finishInflate();
+
+    for (LayoutPartnerConfigs partnerConfigs : returnedPartnerConfigs) {
+      assertSame(constructing, partnerConfigs);
+    }
+    assertNotSame(constructing, layout.getPartnerConfigs());
+  }
+
+  @Test
+  public void getPartnerConfigs_afterAttached_shouldResolveAgain() {
+    final RecordingGlifListLayout layout = new RecordingGlifListLayout(context);
+    final LayoutPartnerConfigs constructing = layout.getPartnerConfigs();
+
+    activity.setContentView(layout);
+
+    final LayoutPartnerConfigs attached = layout.getPartnerConfigs();
+    assertNotSame(constructing, attached);
+    assertNotSame(attached, layout.getPartnerConfigs());
+  }
+
+  private static class RecordingGlifListLayout extends GlifListLayout {
+
+    RecordingGlifListLayout(Context context) {
+      super(context);
+    }
+
+    @Override
+    protected LayoutPartnerConfigs getPartnerConfigs() {
+      final LayoutPartnerConfigs partnerConfigs = super.getPartnerConfigs();
+      returnedPartnerConfigs.add(partnerConfigs);
+      return partnerConfigs;
+    }
+
+    void finishInflate() {
+      onFinishInflate();
+    }
+  }
+}
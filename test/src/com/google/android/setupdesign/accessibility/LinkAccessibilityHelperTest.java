@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.accessibility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import android.graphics.Rect;
+import android.text.Spannable;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.view.Gravity;
+import android.view.View.MeasureSpec;
+import android.widget.TextView;
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+import androidx.test.core.app.ApplicationProvider;
+import com.google.android.setupdesign.accessibility.LinkAccessibilityHelper.PreOLinkAccessibilityHelper;
+import com.google.android.setupdesign.span.LinkSpan;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.GraphicsMode;
+
+// Bounds of the links depend on the measured text, which needs to be measured like on a device.
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class LinkAccessibilityHelperTest {
+
+  private static final String TEXT = "Read the terms and the privacy policy";
+
+  private TextView textView;
+  private PreOLinkAccessibilityHelper helper;
+
+  @Before
+  public void setUp() {
+    textView = new TextView(ApplicationProvider.getApplicationContext());
+    textView.setGravity(Gravity.CENTER_HORIZONTAL);
+    textView.setSingleLine();
+    final SpannableStringBuilder text = new SpannableStringBuilder(TEXT);
+    addLink(text, "terms");
+    textView.setText(text, TextView.BufferType.SPANNABLE);
+    helper = new PreOLinkAccessibilityHelper(textView);
+    layoutAtWidth(1000);
+  }
+
+  @Test
+  public void getVisibleVirtualViews_shouldListLinks() {
+    assertEquals(Arrays.asList(TEXT.indexOf("terms")), getVisibleVirtualViews());
+  }
+
+  @Test
+  public void getVisibleVirtualViews_linkAdded_shouldListNewLink() {
+    getVisibleVirtualViews();
+
+    addLink((Spannable) textView.getText(), "privacy policy");
+
+    assertEquals(
+        Arrays.asList(TEXT.indexOf("terms"), TEXT.indexOf("privacy policy")),
+        getVisibleVirtualViews());
+  }
+
+  @Test
+  public void getVisibleVirtualViews_linkRemoved_shouldNotListLink() {
+    getVisibleVirtualViews();
+    final Spannable text = (Spannable) textView.getText();
+
+    for (LinkSpan span : text.getSpans(0, text.length(), LinkSpan.class)) {
+      text.removeSpan(span);
+    }
+
+    assertEquals(new ArrayList<Integer>(), getVisibleVirtualViews());
+  }
+
+  @Test
+  public void getVirtualViewAt_linkAdded_shouldFindNewLink() {
+    getVisibleVirtualViews();
+    addLink((Spannable) textView.getText(), "privacy policy");
+    final int virtualViewId = TEXT.indexOf("privacy policy");
+    final Rect bounds = getBoundsForVirtualView(helper, virtualViewId);
+
+    assertEquals(virtualViewId, helper.getVirtualViewAt(bounds.centerX(), bounds.centerY()));
+  }
+
+  @Test
+  public void getBounds_afterResize_shouldMatchNewLayout() {
+    final int virtualViewId = TEXT.indexOf("terms");
+    final Rect wideBounds = getBoundsForVirtualView(helper, virtualViewId);
+
+    layoutAtWidth(700);
+
+    final Rect bounds = getBoundsForVirtualView(helper, virtualViewId);
+    // The text is centered, so the link moves along with the width.
+    assertNotEquals(wideBounds, bounds);
+    assertEquals(
+        getBoundsForVirtualView(new PreOLinkAccessibilityHelper(textView), virtualViewId), bounds);
+  }
+
+  @Test
+  public void getBounds_afterSpanMoved_shouldMatchNewSpan() {
+    final int virtualViewId = TEXT.indexOf("privacy policy");
+    final Spannable text = (Spannable) textView.getText();
+    final LinkSpan span = text.getSpans(0, text.length(), LinkSpan.class)[0];
+    getBoundsForVirtualView(helper, TEXT.indexOf("terms"));
+
+    text.setSpan(
+        span,
+        virtualViewId,
+        virtualViewId + "privacy policy".length(),
+        Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+
+    assertEquals(Arrays.asList(virtualViewId), getVisibleVirtualViews());
+    assertEquals(
+        getBoundsForVirtualView(new PreOLinkAccessibilityHelper(textView), virtualViewId),
+        getBoundsForVirtualView(helper, virtualViewId));
+  }
+
+  private ArrayList<Integer> getVisibleVirtualViews() {
+    final ArrayList<Integer> virtualViewIds = new ArrayList<>();
+    helper.getVisibleVirtualViews(virtualViewIds);
+    return virtualViewIds;
+  }
+
+  private static Rect getBoundsForVirtualView(
+      PreOLinkAccessibilityHelper helper, int virtualViewId) {
+    final AccessibilityNodeInfoCompat info = AccessibilityNodeInfoCompat.obtain();
+    helper.onPopulateNodeForVirtualView(virtualViewId, info);
+    final Rect bounds = new Rect();
+    info.getBoundsInParent(bounds);
+    info.recycle();
+    return bounds;
+  }
+
+  private static void addLink(Spannable text, String link) {
+    final int start = TEXT.indexOf(link);
+    text.setSpan(
+        new LinkSpan(link), start, start + link.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+  }
+
+  private void layoutAtWidth(int width) {
+    textView.measure(
+        MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY),
+        MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED));
+    textView.layout(0, 0, width, textView.getMeasuredHeight());
+  }
+}
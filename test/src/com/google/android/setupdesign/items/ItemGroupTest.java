@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.items;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class ItemGroupTest {
+
+  private final List<String> notifications = new ArrayList<>();
+
+  private ItemGroup root;
+
+  @Before
+  public void setUp() {
+    root = new ItemGroup();
+  }
+
+  @Test
+  public void filterItems_consecutiveRemovals_shouldNotifyOneRangePerRun() {
+    final Item[] items = addItems(root, 6);
+    root.registerObserver(new RecordingObserver());
+
+    root.filterItems(hide(items[1], items[2], items[4]));
+
+    assertEquals(Arrays.asList("removed 1+2", "removed 2+1"), notifications);
+    assertItems(root, items[0], items[3], items[5]);
+  }
+
+  @Test
+  public void filterItems_alternatingRuns_shouldNotifyEachRunInOrder() {
+    final Item[] items = addItems(root, 5);
+    items[1].setVisible(false);
+    items[2].setVisible(false);
+    root.registerObserver(new RecordingObserver());
+
+    root.filterItems(hide(items[3]));
+
+    assertEquals(Arrays.asList("inserted 1+2", "removed 3+1"), notifications);
+    assertItems(root, items[0], items[1], items[2], items[4]);
+  }
+
+  @Test
+  public void filterItems_nestedGroup_shouldNotifyPositionsInRoot() {
+    final Item first = addItems(root, 1)[0];
+    final ItemGroup group = new ItemGroup();
+    final Item[] nestedItems = addItems(group, 2);
+    root.addChild(group);
+    final Item last = addItems(root, 1)[0];
+    root.registerObserver(new RecordingObserver());
+
+    root.filterItems(hide(first, nestedItems[1], last));
+
+    // The positions of each notification account for the ones notified before it.
+    assertEquals(Arrays.asList("removed 0+1", "removed 1+1", "removed 1+1"), notifications);
+    assertItems(root, nestedItems[0]);
+    assertItems(group, nestedItems[0]);
+  }
+
+  @Test
+  public void filterItems_showAllAgain_shouldRestoreItems() {
+    final ItemGroup group = new ItemGroup();
+    final Item[] nestedItems = addItems(group, 3);
+    final Item[] items = addItems(root, 2);
+    root.addChild(group);
+    root.filterItems(hide(items[1], nestedItems[0], nestedItems[2]));
+    root.registerObserver(new RecordingObserver());
+
+    root.filterItems(item -> true);
+
+    assertEquals(Arrays.asList("inserted 1+1", "inserted 2+1", "inserted 4+1"), notifications);
+    assertItems(root, items[0], items[1], nestedItems[0], nestedItems[1], nestedItems[2]);
+  }
+
+  @Test
+  public void filterItems_unchanged_shouldNotNotify() {
+    final Item[] items = addItems(root, 3);
+    items[1].setVisible(false);
+    root.registerObserver(new RecordingObserver());
+
+    root.filterItems(hide(items[1]));
+
+    assertEquals(new ArrayList<String>(), notifications);
+    assertItems(root, items[0], items[2]);
+  }
+
+  private static Item[] addItems(ItemGroup group, int count) {
+    final Item[] items = new Item[count];
+    for (int i = 0; i < count; i++) {
+      items[i] = new Item();
+      group.addChild(items[i]);
+    }
+    return items;
+  }
+
+  private static ItemGroup.ItemFilter hide(Item... hiddenItems) {
+    final Set<Item> hidden = new HashSet<>(Arrays.asList(hiddenItems));
+    return item -> !hidden.contains(item);
+  }
+
+  private static void assertItems(ItemHierarchy hierarchy, Item... expected) {
+    final List<IItem> items = new ArrayList<>();
+    for (int position = 0; position < hierarchy.getCount(); position++) {
+      items.add(hierarchy.getItemAt(position));
+    }
+    assertEquals(Arrays.<IItem>asList(expected), items);
+  }
+
+  private class RecordingObserver implements ItemHierarchy.Observer {
+
+    @Override
+    public void onChanged(ItemHierarchy itemHierarchy) {
+      notifications.add("changed");
+    }
+
+    @Override
+    public void onItemRangeChanged(ItemHierarchy itemHierarchy, int positionStart, int itemCount) {
+      notifications.add("changed " + positionStart + "+" + itemCount);
+    }
+
+    @Override
+    public void onItemRangeInserted(ItemHierarchy itemHierarchy, int positionStart, int itemCount) {
+      notifications.add("inserted " + positionStart + "+" + itemCount);
+    }
+
+    @Override
+    public void onItemRangeMoved(
+        ItemHierarchy itemHierarchy, int fromPosition, int toPosition, int itemCount) {
+      notifications.add("moved " + fromPosition + "->" + toPosition + "+" + itemCount);
+    }
+
+    @Override
+    public void onItemRangeRemoved(ItemHierarchy itemHierarchy, int positionStart, int itemCount) {
+      notifications.add("removed " + positionStart + "+" + itemCount);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.template;
+
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.os.Build;
+import android.os.Looper;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+import android.widget.TextView;
+import com.google.android.setupdesign.GlifLayout;
+import com.google.android.setupdesign.R;
+import com.google.android.setupdesign.util.PrecomputedTextHelper;
+import java.util.ArrayList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.O_MR1)
+public class DescriptionMixinTest {
+
+  private static final String DESCRIPTION = "Description";
+
+  /** Measurements queued by {@link PrecomputedTextHelper}, run by {@link #finishMeasuring()}. */
+  private final ArrayList<Runnable> pendingMeasurements = new ArrayList<>();
+
+  private DescriptionMixin descriptionMixin;
+  private TextView textView;
+
+  @Before
+  public void setUp() {
+    final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+    final GlifLayout layout =
+        new GlifLayout(new ContextThemeWrapper(activity, R.style.SudThemeGlif_Light));
+    activity.setContentView(layout);
+    descriptionMixin = layout.getMixin(DescriptionMixin.class);
+    textView = descriptionMixin.getTextView();
+    PrecomputedTextHelper.setExecutor(pendingMeasurements::add);
+    PrecomputedTextHelper.setEnabled(true);
+  }
+
+  @After
+  public void tearDown() {
+    PrecomputedTextHelper.setEnabled(false);
+    PrecomputedTextHelper.setExecutor(null);
+  }
+
+  @Test
+  public void setText_precomputed_shouldShowDescriptionWhenTextSet() {
+    textView.setVisibility(View.GONE);
+
+    descriptionMixin.setText(DESCRIPTION);
+    assertEquals(DESCRIPTION, descriptionMixin.getText().toString());
+    finishMeasuring();
+
+    assertEquals(DESCRIPTION, textView.getText().toString());
+    assertEquals(View.VISIBLE, textView.getVisibility());
+  }
+
+  @Test
+  public void setText_precomputed_hiddenByMixin_shouldStayHidden() {
+    textView.setVisibility(View.VISIBLE);
+
+    descriptionMixin.setText(DESCRIPTION);
+    descriptionMixin.setVisibility(View.GONE);
+    finishMeasuring();
+
+    assertEquals(DESCRIPTION, textView.getText().toString());
+    assertEquals(View.GONE, textView.getVisibility());
+  }
+
+  @Test
+  public void setText_precomputed_hiddenOnTextView_shouldStayHidden() {
+    textView.setVisibility(View.VISIBLE);
+
+    descriptionMixin.setText(DESCRIPTION);
+    textView.setVisibility(View.GONE);
+    finishMeasuring();
+
+    assertEquals(DESCRIPTION, textView.getText().toString());
+    assertEquals(View.GONE, textView.getVisibility());
+  }
+
+  private void finishMeasuring() {
+    for (Runnable measurement : pendingMeasurements) {
+      measurement.run();
+    }
+    pendingMeasurements.clear();
+    shadowOf(Looper.getMainLooper()).idle();
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.template;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import android.app.Activity;
+import android.view.ContextThemeWrapper;
+import android.view.View.MeasureSpec;
+import android.widget.TextView;
+import com.google.android.setupdesign.GlifLayout;
+import com.google.android.setupdesign.R;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.GraphicsMode;
+
+// The auto text size depends on the line count of the header, which needs the text to be measured
+// like on a device.
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class HeaderMixinTest {
+
+  private static final String SHORT_HEADER = "Welcome";
+  private static final String LONG_HEADER =
+      "A header which is long enough to wrap onto several lines at the maximum text size";
+
+  private static final float MAX_TEXT_SIZE = 80f;
+  private static final float MIN_TEXT_SIZE = 40f;
+  private static final int MAX_LINE_OF_MAX_SIZE = 2;
+
+  private GlifLayout layout;
+  private HeaderMixin headerMixin;
+
+  @Before
+  public void setUp() {
+    final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+    layout = new GlifLayout(new ContextThemeWrapper(activity, R.style.SudThemeGlif_Light));
+    activity.setContentView(layout);
+    headerMixin = layout.getMixin(HeaderMixin.class);
+    headerMixin.setAutoTextSizeConfig(MAX_TEXT_SIZE, MIN_TEXT_SIZE, MAX_LINE_OF_MAX_SIZE);
+  }
+
+  @Test
+  public void setText_autoTextSize_shortHeader_shouldUseMaxTextSize() {
+    headerMixin.setText(SHORT_HEADER);
+    layoutAtSize(1080, 1920);
+
+    assertEquals(MAX_TEXT_SIZE, headerMixin.getTextView().getTextSize(), 0f);
+  }
+
+  @Test
+  public void setText_autoTextSize_longHeader_shouldUseMinTextSize() {
+    headerMixin.setText(LONG_HEADER);
+    layoutAtSize(1080, 1920);
+
+    final TextView textView = headerMixin.getTextView();
+    assertEquals(MIN_TEXT_SIZE, textView.getTextSize(), 0f);
+    // Resolved while measuring, so no further layout pass is needed.
+    assertFalse("Layout should not be requested again", textView.isLayoutRequested());
+  }
+
+  @Test
+  public void setText_autoTextSize_afterLayout_shouldResolveWithMeasuredWidth() {
+    headerMixin.setText(SHORT_HEADER);
+    layoutAtSize(1080, 1920);
+
+    headerMixin.setText(LONG_HEADER);
+
+    assertEquals(MIN_TEXT_SIZE, headerMixin.getTextView().getTextSize(), 0f);
+  }
+
+  @Test
+  public void setText_autoTextSize_shouldNotCancelPreDraw() {
+    headerMixin.setText(LONG_HEADER);
+    layoutAtSize(1080, 1920);
+
+    assertFalse(
+        "Pre-draw should not be cancelled", layout.getViewTreeObserver().dispatchOnPreDraw());
+  }
+
+  @Test
+  public void setText_autoTextSize_widthChanged_shouldNotCancelPreDraw() {
+    headerMixin.setText(LONG_HEADER);
+    layoutAtSize(1080, 1920);
+    layout.getViewTreeObserver().dispatchOnPreDraw();
+
+    // The header size is resolved again for the new width, within the same layout pass.
+    layoutAtSize(1920, 1080);
+
+    assertFalse(
+        "Pre-draw should not be cancelled", layout.getViewTreeObserver().dispatchOnPreDraw());
+  }
+
+  private void layoutAtSize(int width, int height) {
+    layout.measure(
+        MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY),
+        MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
+    layout.layout(0, 0, width, height);
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.template;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.view.ContextThemeWrapper;
+import com.google.android.setupdesign.GlifLayout;
+import com.google.android.setupdesign.R;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class RequireScrollMixinTest {
+
+  private RequireScrollMixin requireScrollMixin;
+  private final ArrayList<Boolean> stateChanges = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+    final GlifLayout layout =
+        new GlifLayout(new ContextThemeWrapper(activity, R.style.SudThemeGlif_Light));
+    requireScrollMixin = layout.getMixin(RequireScrollMixin.class);
+    requireScrollMixin.setOnRequireScrollStateChangedListener(stateChanges::add);
+  }
+
+  @Test
+  public void notifyScrollabilityChange_canScrollDown_shouldRequireScrollOnce() {
+    requireScrollMixin.notifyScrollabilityChange(true);
+    requireScrollMixin.notifyScrollabilityChange(true);
+    idleMainLooper();
+    requireScrollMixin.notifyScrollabilityChange(true);
+    idleMainLooper();
+
+    assertEquals(Arrays.asList(true), stateChanges);
+    assertTrue(requireScrollMixin.isScrollingRequired());
+  }
+
+  @Test
+  public void notifyScrollabilityChange_scrolledToBottom_shouldReportOnce() {
+    requireScrollMixin.notifyScrollabilityChange(true);
+    idleMainLooper();
+
+    requireScrollMixin.notifyScrollabilityChange(false);
+    requireScrollMixin.notifyScrollabilityChange(false);
+    idleMainLooper();
+
+    assertEquals(Arrays.asList(true, false), stateChanges);
+    assertFalse(requireScrollMixin.isScrollingRequired());
+  }
+
+  @Test
+  public void notifyScrollabilityChange_flippedBackBeforeDispatch_shouldNotReport() {
+    requireScrollMixin.notifyScrollabilityChange(true);
+    requireScrollMixin.notifyScrollabilityChange(false);
+    idleMainLooper();
+
+    assertEquals(new ArrayList<Boolean>(), stateChanges);
+    assertFalse(requireScrollMixin.isScrollingRequired());
+  }
+
+  @Test
+  public void notifyScrollabilityChange_afterScrolledToBottom_shouldNotRequireScrollAgain() {
+    requireScrollMixin.notifyScrollabilityChange(true);
+    idleMainLooper();
+    requireScrollMixin.notifyScrollabilityChange(false);
+    idleMainLooper();
+
+    requireScrollMixin.notifyScrollabilityChange(true);
+    idleMainLooper();
+
+    assertEquals(Arrays.asList(true, false), stateChanges);
+    assertFalse(requireScrollMixin.isScrollingRequired());
+    assertTrue(requireScrollMixin.hasScrolledToBottom());
+  }
+
+  @Test
+  public void notifyScrollabilityChange_neverRequired_shouldNotReport() {
+    requireScrollMixin.notifyScrollabilityChange(false);
+    idleMainLooper();
+
+    assertEquals(new ArrayList<Boolean>(), stateChanges);
+  }
+
+  private static void idleMainLooper() {
+    shadowOf(Looper.getMainLooper()).idle();
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import androidx.test.core.app.ApplicationProvider;
+import com.google.android.setupcompat.partnerconfig.PartnerConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class LayoutPartnerConfigsTest {
+
+  private LayoutPartnerConfigs partnerConfigs;
+
+  @Before
+  public void setUp() {
+    partnerConfigs =
+        new LayoutPartnerConfigs(
+            ApplicationProvider.getApplicationContext(), /* shouldApplyPartnerResource= */ true);
+  }
+
+  @Test
+  public void isPartnerConfigAvailable_sameConfig_shouldLookUpOnce() {
+    final boolean available =
+        partnerConfigs.isPartnerConfigAvailable(PartnerConfig.CONFIG_LAYOUT_MARGIN_START);
+
+    assertEquals(
+        available,
+        partnerConfigs.isPartnerConfigAvailable(PartnerConfig.CONFIG_LAYOUT_MARGIN_START));
+    assertEquals(
+        available,
+        partnerConfigs.shouldApplyPartnerConfig(PartnerConfig.CONFIG_LAYOUT_MARGIN_START));
+    assertEquals(1, partnerConfigs.getLookupCount());
+  }
+
+  @Test
+  public void getDimension_sameConfig_shouldLookUpOnce() {
+    final float dimension = partnerConfigs.getDimension(PartnerConfig.CONFIG_LAYOUT_MARGIN_START);
+
+    assertEquals(
+        dimension, partnerConfigs.getDimension(PartnerConfig.CONFIG_LAYOUT_MARGIN_START), 0f);
+    assertEquals(1, partnerConfigs.getLookupCount());
+  }
+
+  @Test
+  public void getColor_sameConfig_shouldLookUpOnce() {
+    final int color = partnerConfigs.getColor(PartnerConfig.CONFIG_LAYOUT_BACKGROUND_COLOR);
+
+    assertEquals(color, partnerConfigs.getColor(PartnerConfig.CONFIG_LAYOUT_BACKGROUND_COLOR));
+    assertEquals(1, partnerConfigs.getLookupCount());
+  }
+
+  @Test
+  public void differentConfigs_shouldLookUpEachConfigOnce() {
+    for (int i = 0; i < 3; i++) {
+      partnerConfigs.isPartnerConfigAvailable(PartnerConfig.CONFIG_LAYOUT_MARGIN_START);
+      partnerConfigs.isPartnerConfigAvailable(PartnerConfig.CONFIG_LAYOUT_MARGIN_END);
+      partnerConfigs.getDimension(PartnerConfig.CONFIG_LAYOUT_MARGIN_START);
+      partnerConfigs.getDimension(PartnerConfig.CONFIG_LAYOUT_MARGIN_END);
+    }
+
+    assertEquals(4, partnerConfigs.getLookupCount());
+  }
+
+  @Test
+  public void shouldApplyPartnerConfig_partnerResourceNotApplied_shouldNotLookUp() {
+    final LayoutPartnerConfigs notApplied =
+        new LayoutPartnerConfigs(
+            ApplicationProvider.getApplicationContext(), /* shouldApplyPartnerResource= */ false);
+
+    assertFalse(notApplied.shouldApplyPartnerConfig(PartnerConfig.CONFIG_LAYOUT_MARGIN_START));
+    assertEquals(0, notApplied.getLookupCount());
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.view;
+
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.view.View;
+import android.view.View.MeasureSpec;
+import android.view.ViewGroup.LayoutParams;
+import com.google.android.setupdesign.view.BottomScrollView.BottomScrollListener;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class BottomScrollViewTest {
+
+  private static final int WIDTH = 500;
+  private static final int HEIGHT = 1000;
+  private static final int CHILD_HEIGHT = 2000;
+  private static final int PADDING_BOTTOM = 200;
+  // The bottom is reached before the end of the scroll range, because of the bottom padding.
+  private static final int SCROLL_THRESHOLD = CHILD_HEIGHT - HEIGHT - PADDING_BOTTOM;
+
+  private BottomScrollView scrollView;
+  private CountingBottomScrollListener listener;
+
+  @Before
+  public void setUp() {
+    final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+    scrollView = new BottomScrollView(activity);
+    scrollView.setPadding(0, 0, 0, PADDING_BOTTOM);
+    final View child = new View(activity);
+    child.setMinimumHeight(CHILD_HEIGHT);
+    scrollView.addView(child);
+    activity.setContentView(scrollView, new LayoutParams(WIDTH, HEIGHT));
+    listener = new CountingBottomScrollListener();
+    scrollView.setBottomScrollListener(listener);
+    layout(HEIGHT);
+  }
+
+  @Test
+  public void layout_shouldReportRequiresScroll() {
+    assertEquals(SCROLL_THRESHOLD, scrollView.getScrollThreshold());
+    assertEquals(1, listener.requiresScrollCount);
+    assertEquals(0, listener.scrolledToBottomCount);
+  }
+
+  @Test
+  public void scroll_withinBottom_shouldReportScrolledToBottomOnce() {
+    scrollView.scrollTo(0, SCROLL_THRESHOLD);
+    scrollView.scrollTo(0, SCROLL_THRESHOLD + 100);
+    scrollView.scrollTo(0, SCROLL_THRESHOLD + 200);
+    idleMainLooper();
+
+    assertEquals(1, listener.scrolledToBottomCount);
+  }
+
+  @Test
+  public void scroll_crossingBottomTwice_shouldReportEachCrossing() {
+    scrollView.scrollTo(0, SCROLL_THRESHOLD + 100);
+    scrollView.scrollTo(0, SCROLL_THRESHOLD - 100);
+    scrollView.scrollTo(0, SCROLL_THRESHOLD + 200);
+
+    assertEquals(2, listener.scrolledToBottomCount);
+    assertEquals(1, listener.requiresScrollCount);
+  }
+
+  @Test
+  public void relayout_unchanged_shouldNotReportAgain() {
+    scrollView.scrollTo(0, SCROLL_THRESHOLD);
+
+    scrollView.requestLayout();
+    layout(HEIGHT);
+
+    assertEquals(1, listener.scrolledToBottomCount);
+    assertEquals(1, listener.requiresScrollCount);
+  }
+
+  @Test
+  public void relayout_taller_shouldReportScrolledToBottom() {
+    layout(CHILD_HEIGHT);
+
+    assertEquals(1, listener.scrolledToBottomCount);
+  }
+
+  @Test
+  public void setBottomScrollListener_shouldReportCurrentStateOnce() {
+    scrollView.scrollTo(0, SCROLL_THRESHOLD);
+    final CountingBottomScrollListener newListener = new CountingBottomScrollListener();
+
+    scrollView.setBottomScrollListener(newListener);
+    scrollView.setBottomScrollListener(newListener);
+    idleMainLooper();
+
+    assertEquals(1, newListener.scrolledToBottomCount);
+  }
+
+  /** Lays out the scroll view at the given height, and runs the scroll check it posts. */
+  private void layout(int height) {
+    // Sized the same way by the window, in case it lays out the view as well.
+    scrollView.getLayoutParams().height = height;
+    scrollView.measure(
+        MeasureSpec.makeMeasureSpec(WIDTH, MeasureSpec.EXACTLY),
+        MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
+    scrollView.layout(0, 0, WIDTH, height);
+    idleMainLooper();
+  }
+
+  private static void idleMainLooper() {
+    shadowOf(Looper.getMainLooper()).idle();
+  }
+
+  private static class CountingBottomScrollListener implements BottomScrollListener {
+
+    private int scrolledToBottomCount = 0;
+    private int requiresScrollCount = 0;
+
+    @Override
+    public void onScrolledToBottom() {
+      scrolledToBottomCount++;
+    }
+
+    @Override
+    public void onRequiresScroll() {
+      requiresScrollCount++;
+    }
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.view;
+
+import static org.junit.Assert.assertEquals;
+
+import android.view.ContextThemeWrapper;
+import android.view.View.MeasureSpec;
+import android.widget.FrameLayout;
+import androidx.test.core.app.ApplicationProvider;
+import com.google.android.setupdesign.R;
+import com.google.android.setupdesign.view.IntrinsicSizeFrameLayoutTest.CountingView;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class FillContentLayoutTest {
+
+  private FillContentLayout layout;
+  private CountingView child;
+
+  @Before
+  public void setUp() {
+    final ContextThemeWrapper context =
+        new ContextThemeWrapper(
+            ApplicationProvider.getApplicationContext(), R.style.SudThemeGlif_Light);
+    layout = new FillContentLayout(context);
+    child = new CountingView(context);
+    layout.addView(
+        child,
+        new FrameLayout.LayoutParams(
+            FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT));
+  }
+
+  @Test
+  public void measure_sameSize_shouldMeasureChildOnce() {
+    measure(MeasureSpec.EXACTLY);
+    measure(MeasureSpec.AT_MOST);
+
+    assertEquals(1, child.measureCount);
+  }
+
+  @Test
+  public void measure_afterChildForceLayout_shouldMeasureChildAgain() {
+    measure(MeasureSpec.EXACTLY);
+
+    // Unlike requestLayout, forceLayout does not reach the layout.
+    child.forceLayout();
+    measure(MeasureSpec.AT_MOST);
+
+    assertEquals(2, child.measureCount);
+  }
+
+  @Test
+  public void measure_afterChildRequestLayout_shouldMeasureChildAgain() {
+    final CountingView otherChild = new CountingView(layout.getContext());
+    layout.addView(
+        otherChild,
+        new FrameLayout.LayoutParams(
+            FrameLayout.LayoutParams.WRAP_CONTENT, FrameLayout.LayoutParams.WRAP_CONTENT));
+    measure(MeasureSpec.EXACTLY);
+
+    otherChild.requestLayout();
+    // The layout is already marked, so this request stops at it.
+    child.requestLayout();
+    measure(MeasureSpec.EXACTLY);
+
+    assertEquals(2, child.measureCount);
+    assertEquals(2, otherChild.measureCount);
+  }
+
+  private void measure(int mode) {
+    final int spec = MeasureSpec.makeMeasureSpec(500, mode);
+    layout.measure(spec, spec);
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.view;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ApplicationProvider;
+import com.google.android.setupdesign.view.HeaderRecyclerView.HeaderAdapter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class HeaderAdapterTest {
+
+  private static final int ITEM_COUNT = 5;
+  private static final String PAYLOAD = "payload";
+
+  private Context context;
+  private RecyclerView parent;
+  private TestAdapter wrappedAdapter;
+  private View firstHeader;
+  private View secondHeader;
+  private HeaderAdapter<RecyclerView.ViewHolder> headerAdapter;
+  private final List<String> notifications = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    context = ApplicationProvider.getApplicationContext();
+    parent = new RecyclerView(context);
+    wrappedAdapter = new TestAdapter();
+    wrappedAdapter.setHasStableIds(true);
+    firstHeader = new View(context);
+    secondHeader = new View(context);
+    headerAdapter = new HeaderAdapter<>(wrappedAdapter);
+    headerAdapter.addHeader(firstHeader);
+    headerAdapter.addHeader(secondHeader);
+    headerAdapter.registerAdapterDataObserver(new RecordingObserver());
+  }
+
+  @Test
+  public void getItemCount_shouldIncludeAllHeaders() {
+    assertEquals(2, headerAdapter.getHeaderCount());
+    assertEquals(ITEM_COUNT + 2, headerAdapter.getItemCount());
+  }
+
+  @Test
+  public void getItemViewType_shouldDifferPerHeader() {
+    final int firstHeaderType = headerAdapter.getItemViewType(0);
+    final int secondHeaderType = headerAdapter.getItemViewType(1);
+
+    assertNotEquals(firstHeaderType, secondHeaderType);
+    assertNotEquals(TestAdapter.VIEW_TYPE, firstHeaderType);
+    assertNotEquals(TestAdapter.VIEW_TYPE, secondHeaderType);
+    assertEquals(TestAdapter.VIEW_TYPE, headerAdapter.getItemViewType(2));
+  }
+
+  @Test
+  public void onBindViewHolder_headers_shouldBindEachHeader() {
+    final RecyclerView.ViewHolder firstHolder = createAndBind(0);
+    final RecyclerView.ViewHolder secondHolder = createAndBind(1);
+
+    assertSame(firstHeader, ((FrameLayout) firstHolder.itemView).getChildAt(0));
+    assertSame(secondHeader, ((FrameLayout) secondHolder.itemView).getChildAt(0));
+  }
+
+  @Test
+  public void onBindViewHolder_headerWithPayload_shouldKeepHeader() {
+    final RecyclerView.ViewHolder holder = createAndBind(0);
+
+    headerAdapter.onBindViewHolder(holder, 0, Collections.singletonList(PAYLOAD));
+
+    assertEquals(1, ((FrameLayout) holder.itemView).getChildCount());
+    assertSame(firstHeader, ((FrameLayout) holder.itemView).getChildAt(0));
+  }
+
+  @Test
+  public void onBindViewHolder_item_shouldBindWrappedPositionWithPayloads() {
+    final RecyclerView.ViewHolder holder =
+        headerAdapter.onCreateViewHolder(parent, headerAdapter.getItemViewType(3));
+
+    headerAdapter.onBindViewHolder(holder, 3, Collections.singletonList(PAYLOAD));
+
+    assertEquals(Arrays.asList("bind 1 [payload]"), wrappedAdapter.binds);
+  }
+
+  @Test
+  public void notifyItemChanged_withPayload_shouldForwardOnceWithPayload() {
+    wrappedAdapter.notifyItemChanged(1, PAYLOAD);
+
+    assertEquals(Arrays.asList("changed 3+1 payload"), notifications);
+  }
+
+  @Test
+  public void notifyItemRangeInserted_shouldOffsetByHeaders() {
+    wrappedAdapter.notifyItemRangeInserted(0, 2);
+
+    assertEquals(Arrays.asList("inserted 2+2"), notifications);
+  }
+
+  @Test
+  public void notifyItemRangeRemoved_shouldOffsetByHeaders() {
+    wrappedAdapter.notifyItemRangeRemoved(3, 2);
+
+    assertEquals(Arrays.asList("removed 5+2"), notifications);
+  }
+
+  @Test
+  public void notifyItemMoved_shouldOffsetByHeaders() {
+    wrappedAdapter.notifyItemMoved(0, 4);
+
+    assertEquals(Arrays.asList("moved 2->6"), notifications);
+  }
+
+  @Test
+  public void hasStableIds_shouldFollowWrappedAdapter() {
+    assertTrue(headerAdapter.hasStableIds());
+  }
+
+  @Test
+  public void getItemId_shouldBeUniqueAndForwardWrappedIds() {
+    final HashSet<Long> ids = new HashSet<>();
+    for (int position = 0; position < headerAdapter.getItemCount(); position++) {
+      ids.add(headerAdapter.getItemId(position));
+    }
+
+    assertEquals(headerAdapter.getItemCount(), ids.size());
+    assertEquals(wrappedAdapter.getItemId(0), headerAdapter.getItemId(2));
+    assertEquals(wrappedAdapter.getItemId(ITEM_COUNT - 1), headerAdapter.getItemId(ITEM_COUNT + 1));
+  }
+
+  private RecyclerView.ViewHolder createAndBind(int position) {
+    final RecyclerView.ViewHolder holder =
+        headerAdapter.onCreateViewHolder(parent, headerAdapter.getItemViewType(position));
+    headerAdapter.onBindViewHolder(holder, position);
+    return holder;
+  }
+
+  private class RecordingObserver extends RecyclerView.AdapterDataObserver {
+
+    @Override
+    public void onChanged() {
+      notifications.add("changed");
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+      notifications.add("changed " + positionStart + "+" + itemCount);
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+      notifications.add("changed " + positionStart + "+" + itemCount + " " + payload);
+    }
+
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+      notifications.add("inserted " + positionStart + "+" + itemCount);
+    }
+
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+      notifications.add("removed " + positionStart + "+" + itemCount);
+    }
+
+    @Override
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+      for (int i = 0; i < itemCount; i++) {
+        notifications.add("moved " + (fromPosition + i) + "->" + (toPosition + i));
+      }
+    }
+  }
+
+  private static class TestAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+    private static final int VIEW_TYPE = 1;
+
+    private final List<String> binds = new ArrayList<>();
+
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+      return new RecyclerView.ViewHolder(new View(parent.getContext())) {};
+    }
+
+    @Override
+    public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+      binds.add("bind " + position);
+    }
+
+    @Override
+    public void onBindViewHolder(
+        RecyclerView.ViewHolder holder, int position, List<Object> payloads) {
+      binds.add("bind " + position + " " + payloads);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+      return VIEW_TYPE;
+    }
+
+    @Override
+    public long getItemId(int position) {
+      return position * 10L;
+    }
+
+    @Override
+    public int getItemCount() {
+      return ITEM_COUNT;
+    }
+  }
+}
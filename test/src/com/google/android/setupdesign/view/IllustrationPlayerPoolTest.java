@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.view;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.ComponentCallbacks2;
+import com.google.android.setupdesign.util.MemoryTrimHelper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class IllustrationPlayerPoolTest {
+
+  private static final String KEY_A =
+      IllustrationPlayerPool.keyFor(FakeIllustrationPlayer.TYPE, "com.example", 1);
+  private static final String KEY_B =
+      IllustrationPlayerPool.keyFor(FakeIllustrationPlayer.TYPE, "com.example", 2);
+  private static final String KEY_C =
+      IllustrationPlayerPool.keyFor(FakeIllustrationPlayer.TYPE, "com.example", 3);
+
+  private IllustrationPlayerPool<FakeIllustrationPlayer> pool;
+
+  @Before
+  public void setUp() {
+    pool =
+        new IllustrationPlayerPool<>(
+            /* maxSize= */ 2,
+            FakeIllustrationPlayer::release,
+            FakeIllustrationPlayer::getRetainedBytes);
+  }
+
+  @Test
+  public void keyFor_differentPlayerType_shouldDiffer() {
+    assertNotEquals(
+        IllustrationPlayerPool.keyFor(MediaPlayerIllustrationPlayer.TYPE, "com.example", 1),
+        IllustrationPlayerPool.keyFor(FrameSequenceIllustrationPlayer.TYPE, "com.example", 1));
+  }
+
+  @Test
+  public void acquire_emptyPool_shouldMiss() {
+    assertNull(pool.acquire(KEY_A));
+  }
+
+  @Test
+  public void acquire_otherKey_shouldMiss() {
+    final FakeIllustrationPlayer player = new FakeIllustrationPlayer();
+    pool.offer(KEY_A, player);
+
+    assertNull(pool.acquire(KEY_B));
+    assertEquals(1, pool.size());
+    assertFalse(player.isReleased());
+  }
+
+  @Test
+  public void acquire_sameKey_shouldHitAndRemovePlayer() {
+    final FakeIllustrationPlayer player = new FakeIllustrationPlayer();
+    pool.offer(KEY_A, player);
+
+    assertSame(player, pool.acquire(KEY_A));
+    assertFalse(player.isReleased());
+    assertEquals(0, pool.size());
+    assertNull(pool.acquire(KEY_A));
+  }
+
+  @Test
+  public void offer_sameKey_shouldReleasePreviousPlayer() {
+    final FakeIllustrationPlayer previous = new FakeIllustrationPlayer();
+    final FakeIllustrationPlayer player = new FakeIllustrationPlayer();
+    pool.offer(KEY_A, previous);
+
+    pool.offer(KEY_A, player);
+
+    assertTrue(previous.isReleased());
+    assertSame(player, pool.acquire(KEY_A));
+  }
+
+  @Test
+  public void offer_poolFull_shouldEvictLeastRecentlyUsed() {
+    final FakeIllustrationPlayer playerA = new FakeIllustrationPlayer();
+    final FakeIllustrationPlayer playerB = new FakeIllustrationPlayer();
+    final FakeIllustrationPlayer playerC = new FakeIllustrationPlayer();
+    pool.offer(KEY_A, playerA);
+    pool.offer(KEY_B, playerB);
+    // Returned again after being used, A is now more recent than B.
+    pool.offer(KEY_A, pool.acquire(KEY_A));
+
+    pool.offer(KEY_C, playerC);
+
+    assertEquals(2, pool.size());
+    assertTrue(playerB.isReleased());
+    assertFalse(playerA.isReleased());
+    assertFalse(playerC.isReleased());
+    assertNull(pool.acquire(KEY_B));
+  }
+
+  @Test
+  public void offer_zeroMaxSize_shouldReleasePlayer() {
+    final IllustrationPlayerPool<FakeIllustrationPlayer> disabledPool =
+        new IllustrationPlayerPool<>(/* maxSize= */ 0, FakeIllustrationPlayer::release);
+    final FakeIllustrationPlayer player = new FakeIllustrationPlayer();
+
+    disabledPool.offer(KEY_A, player);
+
+    assertTrue(player.isReleased());
+    assertEquals(0, disabledPool.size());
+  }
+
+  @Test
+  public void clear_shouldReleaseAllPlayers() {
+    final FakeIllustrationPlayer playerA = new FakeIllustrationPlayer();
+    final FakeIllustrationPlayer playerB = new FakeIllustrationPlayer();
+    pool.offer(KEY_A, playerA);
+    pool.offer(KEY_B, playerB);
+
+    pool.clear();
+
+    assertEquals(0, pool.size());
+    assertTrue(playerA.isReleased());
+    assertTrue(playerB.isReleased());
+  }
+
+  @Test
+  public void onTrimMemory_shouldReleaseAllPlayers() {
+    final FakeIllustrationPlayer player = new FakeIllustrationPlayer();
+    pool.offer(KEY_A, player);
+
+    pool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+
+    assertEquals(0, pool.size());
+    assertTrue(player.isReleased());
+  }
+
+  @Test
+  public void getRetainedBytes_shouldSumPooledPlayers() {
+    final FakeIllustrationPlayer playerA = new FakeIllustrationPlayer();
+    playerA.setRetainedBytes(100);
+    final FakeIllustrationPlayer playerB = new FakeIllustrationPlayer();
+    playerB.setRetainedBytes(200);
+    pool.offer(KEY_A, playerA);
+    pool.offer(KEY_B, playerB);
+
+    assertEquals(300, pool.getRetainedBytes());
+  }
+
+  @Test
+  public void getRetainedBytes_noSizer_shouldBeUnknown() {
+    final IllustrationPlayerPool<FakeIllustrationPlayer> unsizedPool =
+        new IllustrationPlayerPool<>(/* maxSize= */ 2, FakeIllustrationPlayer::release);
+    unsizedPool.offer(KEY_A, new FakeIllustrationPlayer());
+
+    assertEquals(MemoryTrimHelper.UNKNOWN_SIZE, unsizedPool.getRetainedBytes());
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.view;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Activity;
+import android.graphics.SurfaceTexture;
+import android.view.View;
+import com.google.android.setupdesign.R;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class IllustrationVideoViewTest {
+
+  // The fake player does not load the resource, any resource ID will do.
+  private static final int VIDEO_RES_ID = R.drawable.sud_card_bg_light;
+
+  private Activity activity;
+  private IllustrationVideoView videoView;
+  private FakeIllustrationPlayer player;
+
+  @Before
+  public void setUp() {
+    activity = Robolectric.buildActivity(Activity.class).setup().get();
+    player = new FakeIllustrationPlayer();
+    videoView = new IllustrationVideoView(activity, null);
+    videoView.setIllustrationPlayerFactory(FakeIllustrationPlayer.TYPE, context -> player);
+    videoView.setPlayerPoolingEnabled(false);
+    videoView.setVideoResource(VIDEO_RES_ID);
+    activity.setContentView(videoView);
+  }
+
+  @After
+  public void tearDown() {
+    IllustrationVideoView.trimPlayerPool();
+  }
+
+  @Test
+  public void surfaceAvailable_shouldPrepareVideo() {
+    makeSurfaceAvailable();
+
+    assertSame(player, videoView.getIllustrationPlayer());
+    assertSame(videoView.surface, player.getSurface());
+    assertEquals(activity.getPackageName(), player.getDataSourcePackageName());
+    assertEquals(VIDEO_RES_ID, player.getDataSourceResId());
+    assertEquals(1, player.getPrepareCount());
+  }
+
+  @Test
+  public void prepared_shouldStartLoopingPlayback() {
+    makeSurfaceAvailable();
+
+    player.notifyPrepared();
+
+    assertTrue(player.isPlaying());
+    assertTrue(player.isLooping());
+    assertTrue(videoView.isRunning());
+  }
+
+  @Test
+  public void prepared_shouldFollowVideoAspectRatio() {
+    makeSurfaceAvailable();
+    player.setVideoSize(400, 300);
+
+    player.notifyPrepared();
+
+    assertEquals(0.75f, videoView.getAspectRatio(), 0f);
+  }
+
+  @Test
+  public void renderingStart_shouldShowView() {
+    makeSurfaceAvailable();
+    player.notifyPrepared();
+    assertEquals(View.INVISIBLE, videoView.getVisibility());
+
+    player.notifyRenderingStart();
+
+    assertEquals(View.VISIBLE, videoView.getVisibility());
+  }
+
+  @Test
+  public void renderingStart_hiddenByCaller_shouldStayHidden() {
+    makeSurfaceAvailable();
+    player.notifyPrepared();
+    videoView.setVisibility(View.GONE);
+
+    player.notifyRenderingStart();
+
+    assertEquals(View.GONE, videoView.getVisibility());
+  }
+
+  @Test
+  public void stop_shouldPausePlayback() {
+    makeSurfaceAvailable();
+    player.notifyPrepared();
+
+    videoView.stop();
+
+    assertFalse(player.isPlaying());
+  }
+
+  @Test
+  public void surfaceDestroyed_poolingDisabled_shouldReleasePlayer() {
+    final SurfaceTexture surfaceTexture = makeSurfaceAvailable();
+    player.notifyPrepared();
+
+    videoView.onSurfaceTextureDestroyed(surfaceTexture);
+
+    assertTrue(player.isReleased());
+    assertEquals(0, IllustrationVideoView.getPlayerPool().size());
+  }
+
+  @Test
+  public void surfaceDestroyed_poolingEnabled_shouldPoolPreparedPlayer() {
+    videoView.setPlayerPoolingEnabled(true);
+    final SurfaceTexture surfaceTexture = makeSurfaceAvailable();
+    player.notifyPrepared();
+
+    videoView.onSurfaceTextureDestroyed(surfaceTexture);
+
+    assertFalse(player.isReleased());
+    assertFalse(player.isPlaying());
+    assertNull(player.getSurface());
+    assertEquals(1, IllustrationVideoView.getPlayerPool().size());
+  }
+
+  @Test
+  public void surfaceRecreated_poolingEnabled_shouldReattachPooledPlayer() {
+    videoView.setPlayerPoolingEnabled(true);
+    videoView.onSurfaceTextureDestroyed(makeSurfacePlaying());
+
+    makeSurfaceAvailable();
+
+    assertSame(player, videoView.getIllustrationPlayer());
+    assertSame(videoView.surface, player.getSurface());
+    assertEquals(1, player.getPrepareCount());
+    assertTrue(player.isPlaying());
+    assertEquals(0, IllustrationVideoView.getPlayerPool().size());
+  }
+
+  @Test
+  public void surfaceRecreated_poolingEnabled_shouldStayHiddenUntilFrameRendered() {
+    videoView.setPlayerPoolingEnabled(true);
+    videoView.onSurfaceTextureDestroyed(makeSurfacePlaying());
+
+    makeSurfaceAvailable();
+
+    // Nothing has been drawn onto the new surface yet.
+    assertEquals(View.INVISIBLE, videoView.getVisibility());
+    assertEquals(1, player.getSeekCount());
+
+    player.notifySeekComplete();
+
+    assertEquals(View.VISIBLE, videoView.getVisibility());
+  }
+
+  @Test
+  public void surfaceRecreated_otherPlayerType_shouldNotReusePooledPlayer() {
+    videoView.setPlayerPoolingEnabled(true);
+    videoView.onSurfaceTextureDestroyed(makeSurfacePlaying());
+    final FakeIllustrationPlayer otherPlayer = new FakeIllustrationPlayer();
+    videoView.setIllustrationPlayerFactory("other", context -> otherPlayer);
+
+    makeSurfaceAvailable();
+
+    assertSame(otherPlayer, videoView.getIllustrationPlayer());
+    assertEquals(1, otherPlayer.getPrepareCount());
+    assertEquals(1, IllustrationVideoView.getPlayerPool().size());
+  }
+
+  @Test
+  public void error_shouldNotBeHandled() {
+    makeSurfaceAvailable();
+
+    assertFalse(player.notifyError(/* what= */ 1, /* extra= */ 0));
+  }
+
+  /** Makes the surface available and plays the video until its first frame is rendered. */
+  private SurfaceTexture makeSurfacePlaying() {
+    final SurfaceTexture surfaceTexture = makeSurfaceAvailable();
+    player.notifyPrepared();
+    player.notifyRenderingStart();
+    return surfaceTexture;
+  }
+
+  /** Provides the surface texture which the hardware renderer would create for the view. */
+  private SurfaceTexture makeSurfaceAvailable() {
+    final SurfaceTexture surfaceTexture = new SurfaceTexture(/* texName= */ 0);
+    videoView.setSurfaceTexture(surfaceTexture);
+    videoView.onSurfaceTextureAvailable(surfaceTexture, 400, 300);
+    return surfaceTexture;
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.view;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.View.MeasureSpec;
+import android.widget.FrameLayout;
+import androidx.test.core.app.ApplicationProvider;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class IntrinsicSizeFrameLayoutTest {
+
+  private static final int INTRINSIC_SIZE = 800;
+
+  private IntrinsicSizeFrameLayout layout;
+  private CountingView child;
+
+  @Before
+  public void setUp() {
+    final Context context = ApplicationProvider.getApplicationContext();
+    final AttributeSet attrs =
+        Robolectric.buildAttributeSet()
+            .addAttribute(android.R.attr.width, INTRINSIC_SIZE + "px")
+            .addAttribute(android.R.attr.height, INTRINSIC_SIZE + "px")
+            .build();
+    layout = new IntrinsicSizeFrameLayout(context, attrs);
+    child = new CountingView(context);
+    layout.addView(
+        child,
+        new FrameLayout.LayoutParams(
+            FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT));
+  }
+
+  @Test
+  public void measure_sameSpecs_shouldMeasureChildOnce() {
+    measureAtMost(1000);
+    measureAtMost(1000);
+
+    assertEquals(1, child.measureCount);
+    assertEquals(INTRINSIC_SIZE, child.getMeasuredWidth());
+  }
+
+  @Test
+  public void measure_specsResolvingToSameChildSpecs_shouldMeasureChildOnce() {
+    measureAtMost(1000);
+    measureAtMost(1200);
+
+    assertEquals(1, child.measureCount);
+  }
+
+  @Test
+  public void measure_afterChildForceLayout_shouldMeasureChildAgain() {
+    measureAtMost(1000);
+
+    // Unlike requestLayout, forceLayout does not reach the layout.
+    child.forceLayout();
+    measureAtMost(1200);
+
+    assertEquals(2, child.measureCount);
+  }
+
+  @Test
+  public void measure_afterChildRequestLayout_shouldMeasureChildAgain() {
+    final CountingView otherChild = new CountingView(layout.getContext());
+    layout.addView(otherChild);
+    measureAtMost(1000);
+
+    otherChild.requestLayout();
+    // The layout is already marked, so this request stops at it.
+    child.requestLayout();
+    measureAtMost(1000);
+
+    assertEquals(2, child.measureCount);
+    assertEquals(2, otherChild.measureCount);
+  }
+
+  private void measureAtMost(int size) {
+    final int spec = MeasureSpec.makeMeasureSpec(size, MeasureSpec.AT_MOST);
+    layout.measure(spec, spec);
+  }
+
+  /** A view counting the calls to {@link #onMeasure(int, int)}. */
+  static class CountingView extends View {
+
+    int measureCount;
+
+    CountingView(Context context) {
+      super(context);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+      measureCount++;
+      super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+    }
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.android.setupdesign.view;
+
+import android.content.Context;
+import android.view.Surface;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * A fake {@link IllustrationPlayer} for tests of {@link IllustrationVideoView}. It records the
+ * calls made by the view, and the test drives the player events with the {@code notify} methods,
+ * e.g. {@link #notifyPrepared()}. Set it on the view with {@link
+ * IllustrationVideoView#setIllustrationPlayerFactory(String, IllustrationPlayer.Factory)}:
+ *
+ * <pre>{@code
+ * FakeIllustrationPlayer player = new FakeIllustrationPlayer();
+ * videoView.setIllustrationPlayerFactory(FakeIllustrationPlayer.TYPE, context -> player);
+ * }</pre>
+ */
+public class FakeIllustrationPlayer implements IllustrationPlayer {
+
+  /** The player type to set along with a factory of fake players. */
+  public static final String TYPE = "fake";
+
+  @Nullable private Listener listener;
+  @Nullable private Surface surface;
+  @Nullable private String dataSourcePackageName;
+  private int dataSourceResId;
+  private int setSurfaceCount;
+  private int prepareCount;
+  private int seekCount;
+  private boolean playing;
+  private boolean looping;
+  private boolean released;
+  private int currentPosition;
+  private int videoWidth;
+  private int videoHeight;
+  private long retainedBytes;
+
+  @Override
+  public void setListener(@Nullable Listener listener) {
+    this.listener = listener;
+  }
+
+  @Override
+  public void setSurface(@Nullable Surface surface) {
+    this.surface = surface;
+    setSurfaceCount++;
+  }
+
+  @Override
+  public void setDataSource(@NonNull Context context, @NonNull String packageName, int resId) {
+    dataSourcePackageName = packageName;
+    dataSourceResId = resId;
+  }
+
+  @Override
+  public void prepareAsync() {
+    prepareCount++;
+  }
+
+  @Override
+  public void start() {
+    playing = true;
+  }
+
+  @Override
+  public void pause() {
+    playing = false;
+  }
+
+  @Override
+  public boolean isPlaying() {
+    return playing;
+  }
+
+  @Override
+  public void seekTo(int milliseconds) {
+    currentPosition = milliseconds;
+    seekCount++;
+  }
+
+  @Override
+  public int getCurrentPosition() {
+    return currentPosition;
+  }
+
+  @Override
+  public int getVideoWidth() {
+    return videoWidth;
+  }
+
+  @Override
+  public int getVideoHeight() {
+    return videoHeight;
+  }
+
+  @Override
+  public void setLooping(boolean looping) {
+    this.looping = looping;
+  }
+
+  @Override
+  public long getRetainedBytes() {
+    return retainedBytes;
+  }
+
+  @Override
+  public void release() {
+    released = true;
+    playing = false;
+    listener = null;
+    surface = null;
+  }
+
+  /** Sets the video size reported once the player is prepared. */
+  public void setVideoSize(int width, int height) {
+    videoWidth = width;
+    videoHeight = height;
+  }
+
+  /** Sets the value returned by {@link #getRetainedBytes()}. */
+  public void setRetainedBytes(long retainedBytes) {
+    this.retainedBytes = retainedBytes;
+  }
+
+  /** Reports that the player is prepared, as a player does once {@link #prepareAsync()} is done. */
+  public void notifyPrepared() {
+    if (listener != null) {
+      listener.onPrepared(this);
+    }
+  }
+
+  /** Reports that the first frame has been pushed to the surface. */
+  public void notifyRenderingStart() {
+    if (listener != null) {
+      listener.onRenderingStart(this);
+    }
+  }
+
+  /** Reports that the last {@link #seekTo(int)} has completed. */
+  public void notifySeekComplete() {
+    if (listener != null) {
+      listener.onSeekComplete(this);
+    }
+  }
+
+  /** Reports an error, and returns whether the listener handled it. */
+  public boolean notifyError(int what, int extra) {
+    return listener != null && listener.onError(this, what, extra);
+  }
+
+  @Nullable
+  public Listener getListener() {
+    return listener;
+  }
+
+  @Nullable
+  public Surface getSurface() {
+    return surface;
+  }
+
+  /** Returns the number of times a surface, or null, was set on this player. */
+  public int getSetSurfaceCount() {
+    return setSurfaceCount;
+  }
+
+  @Nullable
+  public String getDataSourcePackageName() {
+    return dataSourcePackageName;
+  }
+
+  public int getDataSourceResId() {
+    return dataSourceResId;
+  }
+
+  /** Returns the number of times {@link #prepareAsync()} was called. */
+  public int getPrepareCount() {
+    return prepareCount;
+  }
+
+  /** Returns the number of times {@link #seekTo(int)} was called. */
+  public int getSeekCount() {
+    return seekCount;
+  }
+
+  public boolean isLooping() {
+    return looping;
+  }
+
+  public boolean isReleased() {
+    return released;
+  }
+}